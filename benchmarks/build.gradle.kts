@@ -0,0 +1,37 @@
+plugins {
+    id("java")
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+// Not published. Run with ./gradlew :benchmarks:jmh, optionally narrowed down with -Pjmh.includes=<regex>
+repositories {
+    mavenLocal()
+    maven {
+        url = uri("https://central.sonatype.com/repository/maven-snapshots/")
+    }
+    mavenCentral()
+}
+
+dependencies {
+    jmh(project(":model"))
+    jmh(gradleApi())
+    jmh("org.openrewrite:rewrite-core:latest.integration")
+    jmh("org.openrewrite:rewrite-maven:latest.integration")
+    jmh("org.openrewrite:rewrite-gradle:latest.integration") {
+        exclude(group = "org.openrewrite.gradle.tooling")
+    }
+    // Versioned by the Jackson platform rewrite-core depends on, so that it matches jackson-databind
+    jmh("com.fasterxml.jackson.dataformat:jackson-dataformat-smile")
+}
+
+jmh {
+    // The gc profiler reports gc.alloc.rate.norm, the bytes allocated per operation, next to the throughput
+    profilers.add("gc")
+    benchmarkMode.add("thrpt")
+    timeUnit.set("s")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    project.findProperty("jmh.includes")?.let { includes.add(it.toString()) }
+}
+
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.marker;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrewrite.maven.tree.ResolvedDependency;
+import org.openrewrite.maven.tree.ResolvedGroupArtifactVersion;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts Gradle's resolved dependency graph into OpenRewrite's, as {@link GradleProjectBuilder} does for each
+ * resolvable configuration of a project. Several configurations resolving the same graph exercise the sharing of
+ * previously converted subtrees.
+ * <p>
+ * The defaults approximate a Spring Boot application; raise the overlap for diamond-heavy graphs.
+ */
+@State(Scope.Benchmark)
+public class DependencyGraphConversionBenchmark {
+
+    @Param({"60"})
+    int width;
+
+    @Param({"6"})
+    int depth;
+
+    @Param({"4"})
+    int fanout;
+
+    @Param({"0.2", "0.9"})
+    double overlap;
+
+    @Param({"1", "6"})
+    int configurations;
+
+    SyntheticDependencyGraph graph;
+
+    @Setup
+    public void setup() {
+        graph = SyntheticDependencyGraph.generate(width, depth, fanout, overlap, 42);
+    }
+
+    /**
+     * With the coordinate interning caches already populated, as for every project but the first of a build.
+     */
+    @Benchmark
+    public void convert(Blackhole blackhole) {
+        convert(graph.interners, blackhole);
+    }
+
+    /**
+     * Starting from empty interning caches, as for the first project of a build.
+     */
+    @Benchmark
+    public void convertCold(Blackhole blackhole) {
+        convert(new ModelInterners(), blackhole);
+    }
+
+    private void convert(ModelInterners interners, Blackhole blackhole) {
+        Map<ResolvedGroupArtifactVersion, List<ResolvedDependency>> converted = new HashMap<>();
+        for (int i = 0; i < configurations; i++) {
+            blackhole.consume(GradleProjectBuilder.resolved(graph.gaToRequested, graph.gaToResolved, Integer.MAX_VALUE, interners, converted));
+        }
+    }
+}
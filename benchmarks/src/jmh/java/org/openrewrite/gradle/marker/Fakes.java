@@ -0,0 +1,105 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.marker;
+
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ModuleDependency;
+import org.gradle.api.artifacts.ResolvedDependency;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.attributes.AttributeContainer;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+/**
+ * Minimal stand-ins for the parts of Gradle's dependency API which {@link GradleProjectBuilder} reads, so that its
+ * conversions can be measured without running a build. Each fake answers the getters named in its property map and
+ * returns null for anything else.
+ */
+final class Fakes {
+
+    private Fakes() {
+    }
+
+    static <T> T fake(Class<T> type, Map<String, Object> properties) {
+        return type.cast(Proxy.newProxyInstance(Fakes.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return type.getSimpleName() + properties;
+                        default:
+                            return properties.get(method.getName());
+                    }
+                }));
+    }
+
+    static Configuration configuration(String name) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("getName", name);
+        return fake(Configuration.class, properties);
+    }
+
+    static ModuleDependency dependency(String group, String name, String version, Map<String, String> attributes) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("getGroup", group);
+        properties.put("getName", name);
+        properties.put("getVersion", version);
+        properties.put("getAttributes", attributes(attributes));
+        return fake(ModuleDependency.class, properties);
+    }
+
+    static AttributeContainer attributes(Map<String, String> attributes) {
+        Map<Attribute<?>, Object> values = new LinkedHashMap<>();
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            values.put(Attribute.of(attribute.getKey(), String.class), attribute.getValue());
+        }
+        return (AttributeContainer) Proxy.newProxyInstance(Fakes.class.getClassLoader(), new Class<?>[]{AttributeContainer.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "keySet":
+                            return values.keySet();
+                        case "getAttribute":
+                            return values.get(args[0]);
+                        case "isEmpty":
+                            return values.isEmpty();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    /**
+     * @param children Filled in by the caller once the children have been created, which allows for diamonds.
+     */
+    static ResolvedDependency resolvedDependency(String group, String name, String version, Set<ResolvedDependency> children) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("getModuleGroup", group);
+        properties.put("getModuleName", name);
+        properties.put("getModuleVersion", version);
+        properties.put("getName", group + ":" + name + ":" + version);
+        properties.put("getConfiguration", "default");
+        properties.put("getChildren", children);
+        return fake(ResolvedDependency.class, properties);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.marker;
+
+import org.openjdk.jmh.annotations.*;
+import org.openrewrite.gradle.toolingapi.OpenRewriteModel;
+import org.openrewrite.gradle.toolingapi.OpenRewriteModelFormat;
+import org.openrewrite.gradle.toolingapi.OpenRewriteModelImpl;
+import org.openrewrite.maven.tree.Dependency;
+import org.openrewrite.maven.tree.ResolvedDependency;
+import org.openrewrite.maven.tree.ResolvedGroupArtifactVersion;
+
+import java.io.IOException;
+import java.util.*;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static org.openrewrite.Tree.randomId;
+
+/**
+ * Decodes a project model on the client, as {@link OpenRewriteModel#from} does after the Tooling API has transferred
+ * it. The model holds the same synthetic graph in several configurations, like the classpaths of a Java project.
+ */
+@State(Scope.Benchmark)
+public class ModelParseBenchmark {
+
+    @Param({"json-1", "json-2", "smile-2", "smile-3", "smile-3-indexed"})
+    String format;
+
+    @Param({"60"})
+    int width;
+
+    @Param({"6"})
+    int depth;
+
+    @Param({"0.5"})
+    double overlap;
+
+    @Param({"6"})
+    int configurations;
+
+    OpenRewriteModelImpl model;
+
+    @Setup
+    public void setup() throws IOException {
+        SyntheticDependencyGraph graph = SyntheticDependencyGraph.generate(width, depth, 4, overlap, 42);
+        List<Dependency> requested = new ArrayList<>(graph.gaToRequested.values());
+        Map<ResolvedGroupArtifactVersion, List<ResolvedDependency>> converted = new HashMap<>();
+        Map<String, GradleDependencyConfiguration> nameToConfiguration = new HashMap<>();
+        for (int i = 0; i < configurations; i++) {
+            String name = "classpath" + i;
+            List<ResolvedDependency> resolved = GradleProjectBuilder.resolved(graph.gaToRequested, graph.gaToResolved, Integer.MAX_VALUE, graph.interners, converted);
+            nameToConfiguration.put(name, new GradleDependencyConfiguration(name, null, true, true, false, false,
+                    emptyList(), requested, resolved, null, null, emptyList(), emptyMap()));
+        }
+        GradleProject project = new GradleProject(randomId(), "org.example", "sample", "1.0", ":",
+                emptyList(), emptyList(), emptyList(), nameToConfiguration,
+                new GradleBuildscript(randomId(), emptyList(), emptyMap()));
+
+        OpenRewriteModelFormat modelFormat = Objects.requireNonNull(OpenRewriteModelFormat.parse(format));
+        model = new OpenRewriteModelImpl(modelFormat.getId(), modelFormat.write(project), null);
+    }
+
+    @Benchmark
+    public OpenRewriteModel parse() {
+        return OpenRewriteModel.from(model);
+    }
+
+    /**
+     * Parsing a model to look at a single one of its configurations, as most recipes do.
+     */
+    @Benchmark
+    public GradleDependencyConfiguration parseOneConfiguration() {
+        return OpenRewriteModel.from(model).getGradleProject().getConfiguration("classpath0");
+    }
+}
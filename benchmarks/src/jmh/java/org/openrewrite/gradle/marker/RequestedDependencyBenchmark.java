@@ -0,0 +1,61 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.marker;
+
+import org.gradle.api.artifacts.Dependency;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Converts declared dependencies and their attributes, as {@link GradleProjectBuilder} does for the requested
+ * dependencies of each configuration.
+ */
+@State(Scope.Benchmark)
+public class RequestedDependencyBenchmark {
+
+    @Param({"60", "400"})
+    int width;
+
+    SyntheticDependencyGraph graph;
+
+    @Setup
+    public void setup() {
+        graph = SyntheticDependencyGraph.generate(width, 1, 0, 0, 42);
+    }
+
+    @Benchmark
+    public void dependency(Blackhole blackhole) {
+        dependency(graph.interners, blackhole);
+    }
+
+    @Benchmark
+    public void dependencyCold(Blackhole blackhole) {
+        dependency(new ModelInterners(), blackhole);
+    }
+
+    private void dependency(ModelInterners interners, Blackhole blackhole) {
+        for (Dependency dep : graph.declared) {
+            blackhole.consume(GradleProjectBuilder.dependency(dep, graph.configuration, interners));
+        }
+    }
+
+    @Benchmark
+    public void attributes(Blackhole blackhole) {
+        for (Dependency dep : graph.declared) {
+            blackhole.consume(GradleProjectBuilder.attributes(dep));
+        }
+    }
+}
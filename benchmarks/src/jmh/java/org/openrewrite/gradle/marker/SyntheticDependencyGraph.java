@@ -0,0 +1,96 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.marker;
+
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ResolvedDependency;
+import org.openrewrite.maven.tree.Dependency;
+import org.openrewrite.maven.tree.GroupArtifact;
+
+import java.util.*;
+
+/**
+ * A generated dependency graph shaped like what Gradle resolves for a configuration.
+ * <p>
+ * The first level holds {@code width} direct dependencies. Every dependency above the deepest level has up to
+ * {@code fanout} children, drawn at random from a pool of coordinates per level. The {@code overlap} shrinks those
+ * pools, so that more dependencies share children and the graph has more diamonds: 0 gives mostly distinct subtrees,
+ * values close to 1 a graph where nearly everything depends on the same few libraries.
+ */
+final class SyntheticDependencyGraph {
+    final Map<GroupArtifact, ResolvedDependency> gaToResolved = new LinkedHashMap<>();
+    final Map<GroupArtifact, Dependency> gaToRequested = new LinkedHashMap<>();
+    final List<org.gradle.api.artifacts.Dependency> declared = new ArrayList<>();
+    final Configuration configuration = Fakes.configuration("implementation");
+    final ModelInterners interners = new ModelInterners();
+    int size;
+
+    static SyntheticDependencyGraph generate(int width, int depth, int fanout, double overlap, long seed) {
+        SyntheticDependencyGraph graph = new SyntheticDependencyGraph();
+        Random random = new Random(seed);
+        Map<ResolvedDependency, Set<ResolvedDependency>> children = new HashMap<>();
+
+        List<ResolvedDependency> level = new ArrayList<>();
+        for (int i = 0; i < width; i++) {
+            ResolvedDependency dep = graph.node(0, i, children);
+            level.add(dep);
+            org.gradle.api.artifacts.Dependency declared = Fakes.dependency(dep.getModuleGroup(), dep.getModuleName(),
+                    dep.getModuleVersion(), attributes(i));
+            graph.declared.add(declared);
+            GroupArtifact ga = new GroupArtifact(dep.getModuleGroup(), dep.getModuleName());
+            graph.gaToResolved.put(ga, dep);
+            graph.gaToRequested.put(ga, GradleProjectBuilder.dependency(declared, graph.configuration, graph.interners));
+        }
+
+        int poolSize = Math.max(fanout, (int) Math.ceil(width * fanout * (1 - overlap)));
+        for (int d = 1; d < depth; d++) {
+            ResolvedDependency[] pool = new ResolvedDependency[poolSize];
+            List<ResolvedDependency> next = new ArrayList<>();
+            for (ResolvedDependency parent : level) {
+                for (int c = 0; c < fanout; c++) {
+                    int index = random.nextInt(poolSize);
+                    if (pool[index] == null) {
+                        pool[index] = graph.node(d, index, children);
+                        next.add(pool[index]);
+                    }
+                    children.get(parent).add(pool[index]);
+                }
+            }
+            level = next;
+        }
+        return graph;
+    }
+
+    private ResolvedDependency node(int depth, int index, Map<ResolvedDependency, Set<ResolvedDependency>> children) {
+        Set<ResolvedDependency> c = new LinkedHashSet<>();
+        ResolvedDependency dep = Fakes.resolvedDependency("org.example.level" + depth, "library-" + index,
+                "1." + depth + "." + index, c);
+        children.put(dep, c);
+        size++;
+        return dep;
+    }
+
+    private static Map<String, String> attributes(int i) {
+        Map<String, String> attributes = new HashMap<>();
+        if (i % 10 == 0) {
+            attributes.put("org.gradle.category", "platform");
+        } else {
+            attributes.put("org.gradle.category", "library");
+            attributes.put("org.gradle.usage", "java-api");
+        }
+        return attributes;
+    }
+}
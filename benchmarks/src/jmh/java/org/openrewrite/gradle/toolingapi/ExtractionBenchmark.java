@@ -0,0 +1,125 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Extracts models from a generated build end to end, connecting to a Gradle daemon for every operation, to track how
+ * extraction scales with the size of the build. The builds run offline with the plugin embedded in the model jar, so
+ * neither resolving the plugin nor the network is part of what is measured.
+ * <p>
+ * Next to the wall time, the {@link Metrics} report for each extraction the peak heap usage of the daemon, the size of
+ * the transferred models, and how long the client took to decode them, as recorded in the models' metrics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ExtractionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int subprojects;
+
+    @Param({"2"})
+    int configurations;
+
+    @Param({"20"})
+    int dependencies;
+
+    @Param({"500"})
+    int libraries;
+
+    @Param({"3"})
+    int fanout;
+
+    Path dir;
+
+    OpenRewriteModelOptions options = OpenRewriteModelOptions.builder()
+            .embeddedPlugin(true)
+            .offline(true)
+            .build();
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        dir = Files.createTempDirectory("synthetic-build");
+        SyntheticBuild.generate(dir, subprojects, configurations, dependencies, libraries, fanout, 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    /**
+     * The root project only, although Gradle still configures every subproject.
+     */
+    @Benchmark
+    public OpenRewriteModel forProjectDirectory(Metrics metrics) throws IOException {
+        OpenRewriteModel model = OpenRewriteModelBuilder.forProjectDirectory(SyntheticBuild.rootProject(dir).toFile(), null, options);
+        metrics.record(this, model);
+        return model;
+    }
+
+    @Benchmark
+    public OpenRewriteBuildModel forBuild(Metrics metrics) throws IOException {
+        OpenRewriteBuildModel model = OpenRewriteModelBuilder.forBuild(SyntheticBuild.rootProject(dir).toFile(), options);
+        for (OpenRewriteModel project : model.getProjects().values()) {
+            metrics.record(this, project);
+        }
+        return model;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Metrics {
+        public long daemonPeakHeapBytes;
+        public long payloadBytes;
+        public long parseMicros;
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            daemonPeakHeapBytes = 0;
+            payloadBytes = 0;
+            parseMicros = 0;
+        }
+
+        /**
+         * Takes the size of the transferred model and the time the client took to decode it from the metrics recorded
+         * while extracting it, so that no work is added to what is measured.
+         */
+        void record(ExtractionBenchmark benchmark, OpenRewriteModel model) throws IOException {
+            Path peak = SyntheticBuild.rootProject(benchmark.dir).resolve(SyntheticBuild.DAEMON_PEAK_HEAP);
+            if (Files.exists(peak)) {
+                daemonPeakHeapBytes = Long.parseLong(new String(Files.readAllBytes(peak)).trim());
+            }
+            payloadBytes += model.getMetrics().getPayloadBytes();
+            parseMicros += TimeUnit.NANOSECONDS.toMicros(model.getMetrics().getParseNanos());
+        }
+    }
+}
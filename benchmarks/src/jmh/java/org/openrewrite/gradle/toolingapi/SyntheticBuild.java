@@ -0,0 +1,161 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a multi-project Gradle build together with a Maven repository on disk holding every library it depends
+ * on, so that the build resolves its dependencies without network access. The tooling plugin has to be provided
+ * without network access too, which {@link OpenRewriteModelOptions#isEmbeddedPlugin()} takes care of.
+ * <p>
+ * The repository contains {@code libraries} libraries. Each of them depends on up to {@code fanout} libraries further
+ * down the list, so resolving any of them brings in a transitive graph. Each of the {@code subprojects} declares
+ * {@code dependencies} of these libraries on its implementation configuration and a few more on each of
+ * {@code configurations} additional resolvable configurations, and depends on one of the subprojects before it.
+ * <p>
+ * The settings also register a build service which records the peak heap usage of the daemon during the build in
+ * {@link #DAEMON_PEAK_HEAP} when the build finishes.
+ */
+final class SyntheticBuild {
+    static final String DAEMON_PEAK_HEAP = "build/daemon-peak-heap.txt";
+    private static final String GROUP = "org.example.synthetic";
+    // An empty zip archive, which is all Gradle needs to see of a jar to resolve it
+    private static final byte[] EMPTY_JAR = {0x50, 0x4b, 0x05, 0x06, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+
+    private SyntheticBuild() {
+    }
+
+    static void generate(Path dir, int subprojects, int configurations, int dependencies, int libraries, int fanout,
+                         long seed) throws IOException {
+        Random random = new Random(seed);
+        Path repository = dir.resolve("repository");
+        for (int i = 0; i < libraries; i++) {
+            writeLibrary(repository, i, libraries, fanout, random);
+        }
+
+        Path build = rootProject(dir);
+        StringBuilder settings = new StringBuilder()
+                .append("import java.lang.management.ManagementFactory\n")
+                .append("import java.lang.management.MemoryType\n\n")
+                .append("rootProject.name = 'synthetic'\n");
+        for (int i = 0; i < subprojects; i++) {
+            settings.append("include 'sub").append(i).append("'\n");
+        }
+        // A build service is closed when the build finishes, without resorting to the deprecated build listeners
+        settings.append("\n")
+                .append("interface DaemonPeakHeapParameters extends BuildServiceParameters {\n")
+                .append("    RegularFileProperty getOutput()\n")
+                .append("}\n\n")
+                .append("abstract class DaemonPeakHeap implements BuildService<DaemonPeakHeapParameters>, AutoCloseable {\n")
+                .append("    private final heapPools = ManagementFactory.memoryPoolMXBeans.findAll { it.type == MemoryType.HEAP }\n\n")
+                .append("    DaemonPeakHeap() {\n")
+                .append("        heapPools*.resetPeakUsage()\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    void close() {\n")
+                .append("        def peak = parameters.output.get().asFile\n")
+                .append("        peak.parentFile.mkdirs()\n")
+                .append("        peak.text = heapPools.sum { it.peakUsage.used }.toString()\n")
+                .append("    }\n")
+                .append("}\n\n")
+                .append("gradle.sharedServices.registerIfAbsent('daemonPeakHeap', DaemonPeakHeap) {\n")
+                .append("    parameters.output.set(new File(settingsDir, '").append(DAEMON_PEAK_HEAP).append("'))\n")
+                .append("}.get()\n");
+        write(build.resolve("settings.gradle"), settings.toString());
+        write(build.resolve("build.gradle"), "allprojects {\n" +
+                                              "    repositories {\n" +
+                                              "        maven { url = uri('" + repository.toUri() + "') }\n" +
+                                              "    }\n" +
+                                              "}\n");
+
+        for (int p = 0; p < subprojects; p++) {
+            StringBuilder script = new StringBuilder()
+                    .append("plugins {\n    id 'java-library'\n}\n\n");
+            for (int c = 0; c < configurations; c++) {
+                script.append("configurations.create('synthetic").append(c).append("') {\n")
+                        .append("    extendsFrom configurations.implementation\n")
+                        .append("    canBeResolved = true\n")
+                        .append("    canBeConsumed = false\n")
+                        .append("}\n");
+            }
+            script.append("\ndependencies {\n");
+            if (p > 0) {
+                script.append("    implementation project(':sub").append(random.nextInt(p)).append("')\n");
+            }
+            for (int d = 0; d < dependencies; d++) {
+                script.append("    implementation '").append(coordinates(random.nextInt(libraries))).append("'\n");
+            }
+            for (int c = 0; c < configurations; c++) {
+                script.append("    synthetic").append(c).append(" '").append(coordinates(random.nextInt(libraries))).append("'\n");
+            }
+            script.append("}\n");
+            write(build.resolve("sub" + p).resolve("build.gradle"), script.toString());
+        }
+    }
+
+    static Path rootProject(Path dir) {
+        return dir.resolve("synthetic");
+    }
+
+    private static void writeLibrary(Path repository, int index, int libraries, int fanout, Random random) throws IOException {
+        List<Integer> dependencies = new ArrayList<>();
+        for (int f = 0; f < fanout && index + 1 < libraries; f++) {
+            int dependency = index + 1 + random.nextInt(Math.min(libraries - index - 1, 50));
+            if (!dependencies.contains(dependency)) {
+                dependencies.add(dependency);
+            }
+        }
+        StringBuilder pom = new StringBuilder()
+                .append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n")
+                .append("  <modelVersion>4.0.0</modelVersion>\n")
+                .append("  <groupId>").append(GROUP).append("</groupId>\n")
+                .append("  <artifactId>").append(artifactId(index)).append("</artifactId>\n")
+                .append("  <version>1.0</version>\n")
+                .append("  <dependencies>\n");
+        for (int dependency : dependencies) {
+            pom.append("    <dependency>\n")
+                    .append("      <groupId>").append(GROUP).append("</groupId>\n")
+                    .append("      <artifactId>").append(artifactId(dependency)).append("</artifactId>\n")
+                    .append("      <version>1.0</version>\n")
+                    .append("    </dependency>\n");
+        }
+        pom.append("  </dependencies>\n</project>\n");
+
+        Path dir = repository.resolve(GROUP.replace('.', '/')).resolve(artifactId(index)).resolve("1.0");
+        write(dir.resolve(artifactId(index) + "-1.0.pom"), pom.toString());
+        Files.write(dir.resolve(artifactId(index) + "-1.0.jar"), EMPTY_JAR);
+    }
+
+    private static String artifactId(int index) {
+        return "lib" + index;
+    }
+
+    private static String coordinates(int index) {
+        return GROUP + ":" + artifactId(index) + ":1.0";
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -30,6 +30,9 @@ dependencies {
     // changes to the ABI of rewrite-maven.
     compileOnly("org.openrewrite:rewrite-core:latest.integration")
     compileOnly("org.openrewrite:rewrite-maven:latest.integration")
+    // Only needed at runtime by clients which want the model transferred as Smile rather than JSON.
+    // Versioned by the Jackson platform rewrite-core depends on, so that it matches jackson-databind.
+    compileOnly("com.fasterxml.jackson.dataformat:jackson-dataformat-smile")
 
     // These are for org.openrewrite.gradle.toolingapi.Assertions
     compileOnly("org.openrewrite:rewrite-test:latest.integration")
@@ -67,6 +70,58 @@ tasks.named<JavaCompile>("compileJava").configure {
     options.encoding = "UTF-8"
 }
 
+// Flight Recorder events, which are loaded reflectively so that the rest of the model keeps working on Java 8
+val java11 by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+}
+
+sourceSets.test {
+    runtimeClasspath += java11.output
+}
+
+tasks.named<JavaCompile>("compileJava11Java").configure {
+    options.release.set(11)
+    options.encoding = "UTF-8"
+}
+
+// Tests of the Flight Recorder events, which are run by the test task but not by testGradle4 on Java 8
+val java11Test by sourceSets.creating {
+    compileClasspath += sourceSets.test.get().output + sourceSets.test.get().compileClasspath
+    runtimeClasspath += output + compileClasspath + sourceSets.test.get().runtimeClasspath
+}
+
+tasks.named<JavaCompile>("compileJava11TestJava").configure {
+    options.release.set(11)
+    options.encoding = "UTF-8"
+}
+
+tasks.named<Test>("test").configure {
+    testClassesDirs += java11Test.output.classesDirs
+    classpath += java11Test.runtimeClasspath
+}
+
+tasks.named<Jar>("jar").configure {
+    from(java11.output)
+}
+
+// The plugin and its dependencies as assembled by :plugin, see OpenRewriteModelOptions#embeddedPlugin
+val embeddedPlugin by configurations.creating {
+    isCanBeConsumed = false
+    isCanBeResolved = true
+    isTransitive = false
+}
+
+dependencies {
+    embeddedPlugin(project(mapOf("path" to ":plugin", "configuration" to "embeddedPluginElements")))
+}
+
+// Part of the resources rather than only the jar, so that the tests can extract models with the embedded plugin too
+tasks.named<ProcessResources>("processResources").configure {
+    from(embeddedPlugin) {
+        into("META-INF/rewrite-gradle-tooling/plugin")
+    }
+}
+
 val testGradle4 = tasks.register<Test>("testGradle4") {
     systemProperty("org.openrewrite.test.gradleVersion", "4.10")
     systemProperty("jarLocationForTest", tasks.named<Jar>("jar").get().archiveFile.get().asFile.absolutePath)
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.marker;
+
+import jdk.jfr.*;
+
+/**
+ * The Flight Recorder implementation of {@link ExtractionEvents}, loaded reflectively as it requires Java 11.
+ */
+@SuppressWarnings("unused")
+final class JfrExtractionEvents implements ExtractionEvents.Factory {
+
+    @Override
+    public ExtractionEvents.Event begin(ExtractionEvents.Kind kind) {
+        ExtractionEvent event;
+        switch (kind) {
+            case BUILD_MODEL:
+                event = new BuildModel();
+                break;
+            case RESOLVE_CONFIGURATION:
+                event = new ResolveConfiguration();
+                break;
+            case INFER_CONSTRAINTS:
+                event = new InferConstraints();
+                break;
+            default:
+                event = new ParseModel();
+                break;
+        }
+        if (!event.isEnabled()) {
+            return ExtractionEvents.noop();
+        }
+        event.begin();
+        return event;
+    }
+
+    @Category({"OpenRewrite", "Gradle Tooling Model"})
+    @StackTrace(false)
+    abstract static class ExtractionEvent extends Event implements ExtractionEvents.Event {
+        @Label("Project Path")
+        String projectPath;
+
+        @Label("Configuration")
+        String configuration;
+
+        @Label("Dependency Count")
+        long dependencyCount;
+
+        @Override
+        public void commit(String projectPath, String configuration, long dependencyCount) {
+            end();
+            if (shouldCommit()) {
+                this.projectPath = projectPath;
+                this.configuration = configuration;
+                this.dependencyCount = dependencyCount;
+                commit();
+            }
+        }
+    }
+
+    @Name("org.openrewrite.gradle.BuildModel")
+    @Label("Build Model")
+    @Description("Building and serializing the OpenRewrite model of a project in the Gradle daemon")
+    static class BuildModel extends ExtractionEvent {
+    }
+
+    @Name("org.openrewrite.gradle.ResolveConfiguration")
+    @Label("Resolve Configuration")
+    @Description("Resolving a dependency configuration and converting its dependency graph")
+    static class ResolveConfiguration extends ExtractionEvent {
+    }
+
+    @Name("org.openrewrite.gradle.InferConstraints")
+    @Label("Infer Constraints")
+    @Description("Working out the dependency constraints which apply to a configuration")
+    static class InferConstraints extends ExtractionEvent {
+    }
+
+    @Name("org.openrewrite.gradle.ParseModel")
+    @Label("Parse Model")
+    @Description("Decoding the OpenRewrite model of a project on the client")
+    static class ParseModel extends ExtractionEvent {
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.gradle.marker.ExtractionMetrics;
+import org.openrewrite.gradle.marker.GradleBuildscript;
+import org.openrewrite.gradle.marker.GradleProject;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.openrewrite.Tree.randomId;
+
+class ParseModelEventTest {
+    private static final String PARSE_MODEL = "org.openrewrite.gradle.ParseModel";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordsParsedModel() throws Exception {
+        GradleProject project = new GradleProject(randomId(), "org.example", "sample", "1.0", ":sample",
+          emptyList(), emptyList(), emptyList(), emptyMap(), new GradleBuildscript(randomId(), emptyList(), emptyMap()));
+        ExtractionMetrics metrics = ExtractionMetrics.builder()
+          .projectPath(":sample")
+          .configuration(ExtractionMetrics.ConfigurationMetrics.builder()
+            .name("runtimeClasspath")
+            .resolved(true)
+            .resolvedDependencies(42)
+            .build())
+          .build();
+        OpenRewriteModelFormat format = OpenRewriteModelFormat.LEGACY;
+
+        List<RecordedEvent> events = record(() -> OpenRewriteModel.from(
+          new OpenRewriteModelImpl(format.getId(), format.write(project), null, format.write(metrics))));
+
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.getString("projectPath")).isEqualTo(":sample");
+            assertThat(event.getLong("dependencyCount")).isEqualTo(42);
+        });
+    }
+
+    @Test
+    void recordsFailedParse() throws Exception {
+        OpenRewriteModelFormat format = OpenRewriteModelFormat.LEGACY;
+
+        List<RecordedEvent> events = record(() -> assertThatThrownBy(() -> OpenRewriteModel.from(
+          new OpenRewriteModelImpl(format.getId(), "{".getBytes(), null))).isInstanceOf(RuntimeException.class));
+
+        assertThat(events).singleElement().satisfies(event -> assertThat(event.getString("projectPath")).isNull());
+    }
+
+    private List<RecordedEvent> record(ThrowingRunnable action) throws Exception {
+        Path file = dir.resolve("parse-model.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(PARSE_MODEL);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+          .filter(event -> PARSE_MODEL.equals(event.getEventType().getName()))
+          .collect(Collectors.toList());
+    }
+
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
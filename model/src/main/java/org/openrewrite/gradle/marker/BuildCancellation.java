@@ -0,0 +1,52 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.marker;
+
+import org.gradle.api.BuildCancelledException;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.service.UnknownServiceException;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Whether the Tooling API client has cancelled the build, so that building a model can stop between dependency
+ * configurations rather than resolving the remaining ones for a client which is no longer waiting for them.
+ */
+final class BuildCancellation {
+    static final BuildCancellation NONE = new BuildCancellation(null);
+
+    private final @Nullable BuildCancellationToken token;
+
+    private BuildCancellation(@Nullable BuildCancellationToken token) {
+        this.token = token;
+    }
+
+    static BuildCancellation forBuild(Gradle gradle) {
+        try {
+            return new BuildCancellation(((GradleInternal) gradle).getServices().get(BuildCancellationToken.class));
+        } catch (UnknownServiceException | ClassCastException | LinkageError e) {
+            // Internal API, without which the model is built in full just as before
+            return NONE;
+        }
+    }
+
+    void check() {
+        if (token != null && token.isCancellationRequested()) {
+            throw new BuildCancelledException("Build cancelled while building the OpenRewrite model");
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.marker;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.Value;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+/**
+ * Selects which dependency configurations of a project are resolved. Configurations which are not selected are still
+ * part of the model, listing what they request, but are left unresolved. The
+ * {@link ExtractionMetrics.ConfigurationMetrics#isNotSelected() metrics} of those which could have been resolved tell
+ * them apart from configurations which resolved to no dependencies.
+ * <p>
+ * Patterns match configuration names, where {@code *} matches any number of characters and {@code ?} matches a
+ * single character. Configurations of the buildscript are always resolved.
+ */
+@Value
+public class ConfigurationSelection {
+    public static final String INCLUDE_PROPERTY = "org.openrewrite.gradle.toolingapi.includeConfigurations";
+    public static final String EXCLUDE_PROPERTY = "org.openrewrite.gradle.toolingapi.excludeConfigurations";
+    public static final String DECLARED_ONLY_PROPERTY = "org.openrewrite.gradle.toolingapi.declaredConfigurationsOnly";
+
+    public static final ConfigurationSelection ALL = new ConfigurationSelection(emptyList(), emptyList(), false);
+    public static final ConfigurationSelection NONE = new ConfigurationSelection(emptyList(), singletonList("*"), false);
+
+    /**
+     * When not empty, only configurations matching one of these patterns are resolved.
+     */
+    List<String> includes;
+
+    /**
+     * Configurations matching any of these patterns are not resolved, even if they match an include.
+     */
+    List<String> excludes;
+
+    /**
+     * Only resolve configurations which have dependencies declared on them or on a configuration they extend from.
+     * Resolving any other configuration would not resolve any dependencies.
+     */
+    boolean declaredOnly;
+
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    List<Pattern> includePatterns;
+
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    List<Pattern> excludePatterns;
+
+    public ConfigurationSelection(List<String> includes, List<String> excludes, boolean declaredOnly) {
+        this.includes = includes;
+        this.excludes = excludes;
+        this.declaredOnly = declaredOnly;
+        this.includePatterns = globs(includes);
+        this.excludePatterns = globs(excludes);
+    }
+
+    public boolean selects(Configuration configuration) {
+        return selects(configuration.getName()) &&
+               (!declaredOnly || !configuration.getAllDependencies().isEmpty());
+    }
+
+    boolean selects(String configurationName) {
+        if (!includePatterns.isEmpty() && !matchesAny(includePatterns, configurationName)) {
+            return false;
+        }
+        return !matchesAny(excludePatterns, configurationName);
+    }
+
+    /**
+     * The selection requested by the client through the project properties of the build.
+     */
+    public static ConfigurationSelection fromProject(Project project) {
+        return new ConfigurationSelection(
+                patterns(project.findProperty(INCLUDE_PROPERTY)),
+                patterns(project.findProperty(EXCLUDE_PROPERTY)),
+                Boolean.parseBoolean(String.valueOf(project.findProperty(DECLARED_ONLY_PROPERTY))));
+    }
+
+    private static List<String> patterns(@Nullable Object property) {
+        List<String> patterns = new ArrayList<>();
+        if (property != null) {
+            for (String pattern : property.toString().split(",")) {
+                if (!pattern.trim().isEmpty()) {
+                    patterns.add(pattern.trim());
+                }
+            }
+        }
+        return patterns;
+    }
+
+    private static List<Pattern> globs(List<String> patterns) {
+        List<Pattern> globs = new ArrayList<>(patterns.size());
+        for (String pattern : patterns) {
+            globs.add(glob(pattern));
+        }
+        return globs;
+    }
+
+    private static boolean matchesAny(List<Pattern> patterns, String name) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(name).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Pattern glob(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : pattern.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
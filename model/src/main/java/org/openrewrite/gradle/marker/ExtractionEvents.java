@@ -0,0 +1,80 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.marker;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Emits Java Flight Recorder events for the phases of model extraction, so that a daemon or client can be profiled
+ * continuously while extracting models of many builds, and slow extractions be correlated with GC and I/O.
+ * <p>
+ * The events are implemented in classes compiled for Java 11, which are loaded reflectively. On JVMs without Flight
+ * Recorder, including Java 8, and while no recording has the events enabled, this does nothing.
+ */
+public final class ExtractionEvents {
+    private static final Event NOOP = (projectPath, configuration, dependencyCount) -> {
+    };
+
+    private static final Factory factory = load();
+
+    private ExtractionEvents() {
+    }
+
+    public enum Kind {
+        /**
+         * Building and serializing the model of a project within the Gradle daemon.
+         */
+        BUILD_MODEL,
+        RESOLVE_CONFIGURATION,
+        INFER_CONSTRAINTS,
+        /**
+         * Decoding the model of a project on the client.
+         */
+        PARSE_MODEL
+    }
+
+    public static Event begin(Kind kind) {
+        return factory.begin(kind);
+    }
+
+    public interface Event {
+        /**
+         * Records the event, with the time since it began as its duration.
+         *
+         * @param dependencyCount The number of resolved dependencies, or constraints when inferring constraints.
+         */
+        void commit(@Nullable String projectPath, @Nullable String configuration, long dependencyCount);
+    }
+
+    interface Factory {
+        Event begin(Kind kind);
+    }
+
+    static Event noop() {
+        return NOOP;
+    }
+
+    private static Factory load() {
+        try {
+            Class<?> jfr = Class.forName("org.openrewrite.gradle.marker.JfrExtractionEvents", true,
+                    ExtractionEvents.class.getClassLoader());
+            return (Factory) jfr.getDeclaredConstructor().newInstance();
+        } catch (Exception | LinkageError e) {
+            // Java 8, which cannot load the class, or a runtime without the jdk.jfr module
+            return kind -> NOOP;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.marker;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+import lombok.With;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where the time went while extracting the model of a single project, and how large the result was.
+ * <p>
+ * The plugin measures the work done within the Gradle daemon, the client adds the time it took to parse the model.
+ * Durations are in nanoseconds, and zero when they were not measured, e.g. because the model was served from a cache
+ * or was built by a version of the plugin which predates these metrics.
+ */
+@Value
+@With
+@Builder(toBuilder = true)
+@AllArgsConstructor(onConstructor_ = @JsonCreator)
+public class ExtractionMetrics {
+    @Nullable
+    String projectPath;
+
+    /**
+     * Time from the plugin being applied to the project until the project was evaluated, which is mostly spent
+     * running its build script.
+     */
+    long configurationNanos;
+
+    /**
+     * Time spent building the project and settings markers, including resolving dependency configurations.
+     */
+    long modelBuildNanos;
+
+    long serializationNanos;
+
+    /**
+     * Size of the encoded project and settings markers as transferred to the client.
+     */
+    long payloadBytes;
+
+    long parseNanos;
+
+    /**
+     * How often a coordinate or requested dependency was found already interned while building this project's model.
+     */
+    long internerHits;
+
+    long internerMisses;
+
+    @Singular
+    List<ConfigurationMetrics> configurations;
+
+    public double internerHitRate() {
+        long lookups = internerHits + internerMisses;
+        return lookups == 0 ? 0 : (double) internerHits / lookups;
+    }
+
+    public long resolveNanos() {
+        long nanos = 0;
+        for (ConfigurationMetrics configuration : configurations) {
+            nanos += configuration.getResolveNanos() + configuration.getConstraintsNanos();
+        }
+        return nanos;
+    }
+
+    public long resolvedDependencies() {
+        long resolvedDependencies = 0;
+        for (ConfigurationMetrics configuration : configurations) {
+            resolvedDependencies += configuration.getResolvedDependencies();
+        }
+        return resolvedDependencies;
+    }
+
+    /**
+     * @return The names of the configurations which could have been resolved, but were left unresolved because the
+     * {@link ConfigurationSelection} did not select them.
+     */
+    public List<String> notSelectedConfigurations() {
+        List<String> notSelected = new ArrayList<>();
+        for (ConfigurationMetrics configuration : configurations) {
+            if (configuration.isNotSelected()) {
+                notSelected.add(configuration.getName());
+            }
+        }
+        return notSelected;
+    }
+
+    /**
+     * Combines the metrics of parts of the same project's model which were extracted separately. Configurations of
+     * {@code other} replace those of the same name.
+     */
+    public ExtractionMetrics plus(ExtractionMetrics other) {
+        Map<String, ConfigurationMetrics> byName = new LinkedHashMap<>();
+        for (ConfigurationMetrics configuration : configurations) {
+            byName.put(configuration.getName(), configuration);
+        }
+        for (ConfigurationMetrics configuration : other.configurations) {
+            byName.put(configuration.getName(), configuration);
+        }
+        return new ExtractionMetrics(
+                projectPath == null ? other.projectPath : projectPath,
+                Math.max(configurationNanos, other.configurationNanos),
+                modelBuildNanos + other.modelBuildNanos,
+                serializationNanos + other.serializationNanos,
+                payloadBytes + other.payloadBytes,
+                parseNanos + other.parseNanos,
+                internerHits + other.internerHits,
+                internerMisses + other.internerMisses,
+                new ArrayList<>(byName.values()));
+    }
+
+    @Value
+    @Builder
+    @AllArgsConstructor(onConstructor_ = @JsonCreator)
+    public static class ConfigurationMetrics {
+        String name;
+
+        /**
+         * Whether the configuration was resolved, as opposed to only listing what it requests.
+         */
+        boolean resolved;
+
+        /**
+         * Whether the configuration could have been resolved, but was left unresolved because the
+         * {@link ConfigurationSelection} did not select it.
+         */
+        boolean notSelected;
+
+        long resolveNanos;
+
+        /**
+         * Time spent working out the constraints which apply to the configuration, which for configurations that are
+         * not otherwise resolved may involve resolving a copy of it.
+         */
+        long constraintsNanos;
+
+        int requestedDependencies;
+
+        int directDependencies;
+
+        /**
+         * Distinct dependencies anywhere in the resolved dependency graph.
+         */
+        int resolvedDependencies;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.openrewrite.gradle.marker;
 
+import lombok.Value;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.*;
 import org.gradle.api.artifacts.Dependency;
@@ -36,7 +37,6 @@
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.emptyList;
@@ -47,11 +47,39 @@
 import static org.openrewrite.gradle.marker.GradleSettingsBuilder.GRADLE_PLUGIN_PORTAL;
 
 public final class GradleProjectBuilder {
+    /**
+     * Project property through which the client limits how many levels of the dependency graph of a configuration
+     * are part of the model. Direct dependencies make up the first level.
+     */
+    public static final String MAX_DEPENDENCY_DEPTH_PROPERTY = "org.openrewrite.gradle.toolingapi.maxDependencyDepth";
 
     private GradleProjectBuilder() {
     }
 
     public static GradleProject gradleProject(Project project) {
+        return gradleProject(project, ConfigurationSelection.ALL);
+    }
+
+    /**
+     * @param selection The dependency configurations of the project to resolve. The others list what they request but
+     *                  are left unresolved. With {@link ConfigurationSelection#NONE} they can subsequently be resolved
+     *                  one at a time with {@link #dependencyConfiguration(Project, String, ConfigurationSelection)}.
+     */
+    public static GradleProject gradleProject(Project project, ConfigurationSelection selection) {
+        return gradleProject(project, selection, ExtractionMetrics.builder());
+    }
+
+    /**
+     * @param metrics Receives the time spent on and size of each dependency configuration, and how effective
+     *                interning was.
+     */
+    public static GradleProject gradleProject(Project project, ConfigurationSelection selection,
+                                              ExtractionMetrics.ExtractionMetricsBuilder metrics) {
+        ModelInterners interners = ModelInterners.forBuild(project.getGradle());
+        long hits = interners.hits();
+        long misses = interners.misses();
+        int maxDepth = maxDependencyDepth(project);
+        BuildCancellation cancellation = BuildCancellation.forBuild(project.getGradle());
         Set<MavenRepository> pluginRepositories = new HashSet<>();
         if (GradleVersion.current().compareTo(GradleVersion.version("4.4")) >= 0) {
             Settings settings = ((DefaultGradle) project.getGradle()).getSettings();
@@ -69,7 +97,7 @@ public static GradleProject gradleProject(Project project) {
             pluginRepositories.add(GRADLE_PLUGIN_PORTAL);
         }
 
-        return new GradleProject(randomId(),
+        GradleProject gradleProject = new GradleProject(randomId(),
                 project.getGroup().toString(),
                 project.getName(),
                 project.getVersion().toString(),
@@ -77,12 +105,17 @@ public static GradleProject gradleProject(Project project) {
                 GradleProjectBuilder.pluginDescriptors(project.getPluginManager()),
                 mapRepositories(repositories),
                 null,
-                GradleProjectBuilder.dependencyConfigurations(project.getConfigurations()),
+                GradleProjectBuilder.dependencyConfigurations(project.getPath(), project.getConfigurations(), selection, maxDepth, interners, cancellation, metrics),
                 new GradleBuildscript(
                         randomId(),
                         new ArrayList<>(pluginRepositories),
-                        GradleProjectBuilder.dependencyConfigurations(project.getBuildscript().getConfigurations())
+                        GradleProjectBuilder.dependencyConfigurations(project.getPath(), project.getBuildscript().getConfigurations(), ConfigurationSelection.ALL, maxDepth, interners, cancellation, metrics)
                 ));
+        // Approximate when the projects of a build are built in parallel, as they share interners
+        metrics.projectPath(project.getPath())
+                .internerHits(interners.hits() - hits)
+                .internerMisses(interners.misses() - misses);
+        return gradleProject;
     }
 
     static List<MavenRepository> mapRepositories(List<ArtifactRepository> repositories) {
@@ -137,90 +170,71 @@ private static boolean isCanBeDeclared(Configuration configuration) {
         }
     }
 
-    private static final Map<GroupArtifact, GroupArtifact> groupArtifactCache = new ConcurrentHashMap<>();
-
-    private static GroupArtifact groupArtifact(org.openrewrite.maven.tree.Dependency dep) {
-        //noinspection ConstantConditions
-        return groupArtifactCache.computeIfAbsent(new GroupArtifact(dep.getGroupId(), dep.getArtifactId()), it -> it);
+    /**
+     * Resolve a single dependency configuration of the project, provided it is selected. The configurations it extends
+     * from are not filled in.
+     */
+    public static GradleDependencyConfiguration dependencyConfiguration(Project project, String name, ConfigurationSelection selection) {
+        return dependencyConfiguration(project, name, selection, ExtractionMetrics.builder());
     }
 
-    private static GroupArtifact groupArtifact(ResolvedDependency dep) {
-        return groupArtifactCache.computeIfAbsent(new GroupArtifact(dep.getModuleGroup(), dep.getModuleName()), it -> it);
+    public static GradleDependencyConfiguration dependencyConfiguration(Project project, String name, ConfigurationSelection selection,
+                                                                        ExtractionMetrics.ExtractionMetricsBuilder metrics) {
+        ConfigurationContainer configurations = project.getConfigurations();
+        Configuration conf = configurations.getByName(name);
+        metrics.projectPath(project.getPath());
+        BuildCancellation.forBuild(project.getGradle()).check();
+        return dependencyConfiguration(project.getPath(), configurations, conf, selection.selects(conf), maxDependencyDepth(project),
+                ModelInterners.forBuild(project.getGradle()), metrics, new HashMap<>());
     }
 
-    private static final Map<GroupArtifactVersion, GroupArtifactVersion> groupArtifactVersionCache = new ConcurrentHashMap<>();
-
-    private static GroupArtifactVersion groupArtifactVersion(ResolvedDependency dep) {
-        return groupArtifactVersionCache.computeIfAbsent(
-                new GroupArtifactVersion(dep.getModuleGroup(), dep.getModuleName(), unspecifiedToNull(dep.getModuleVersion())),
-                it -> it);
-    }
-
-    private static GroupArtifactVersion groupArtifactVersion(Dependency dep) {
-        return groupArtifactVersionCache.computeIfAbsent(
-                new GroupArtifactVersion(dep.getGroup(), dep.getName(), unspecifiedToNull(dep.getVersion())), it -> it);
+    /**
+     * The maximum number of levels of the dependency graph requested by the client, unlimited when not set.
+     */
+    static int maxDependencyDepth(Project project) {
+        return maxDependencyDepth(project.findProperty(MAX_DEPENDENCY_DEPTH_PROPERTY));
     }
 
-    private static final Map<ResolvedGroupArtifactVersion, ResolvedGroupArtifactVersion> resolvedGroupArtifactVersionCache = new ConcurrentHashMap<>();
-
-    private static ResolvedGroupArtifactVersion resolvedGroupArtifactVersion(ResolvedDependency dep) {
-        return resolvedGroupArtifactVersionCache.computeIfAbsent(new ResolvedGroupArtifactVersion(
-                        null, dep.getModuleGroup(), dep.getModuleName(), dep.getModuleVersion(), null),
-                it -> it);
+    private static int maxDependencyDepth(@Nullable Object property) {
+        if (property != null) {
+            try {
+                int maxDepth = Integer.parseInt(property.toString().trim());
+                if (maxDepth > 0) {
+                    return maxDepth;
+                }
+            } catch (NumberFormatException ignored) {
+                // Fall through to no limit
+            }
+        }
+        return Integer.MAX_VALUE;
     }
 
     /**
-     * Some Gradle dependency functions will have the String "unspecified" to indicate a missing value.
-     * Rewrite's dependency API represents these missing things as "null"
+     * The dependency configurations of the settings script's buildscript, which belong to no project.
      */
-    private static @Nullable String unspecifiedToNull(@Nullable String maybeUnspecified) {
-        if ("unspecified".equals(maybeUnspecified)) {
-            return null;
-        }
-        return maybeUnspecified;
+    static Map<String, GradleDependencyConfiguration> dependencyConfigurations(Settings settings) {
+        int maxDepth = maxDependencyDepth(settings.getStartParameter().getProjectProperties().get(MAX_DEPENDENCY_DEPTH_PROPERTY));
+        return dependencyConfigurations(null, settings.getBuildscript().getConfigurations(), ConfigurationSelection.ALL, maxDepth,
+                ModelInterners.forBuild(settings.getGradle()), BuildCancellation.forBuild(settings.getGradle()), ExtractionMetrics.builder());
     }
 
-    static Map<String, GradleDependencyConfiguration> dependencyConfigurations(ConfigurationContainer configurationContainer) {
+    static Map<String, GradleDependencyConfiguration> dependencyConfigurations(@Nullable String projectPath,
+                                                                             ConfigurationContainer configurationContainer,
+                                                                             ConfigurationSelection selection,
+                                                                             int maxDepth,
+                                                                             ModelInterners interners,
+                                                                             BuildCancellation cancellation,
+                                                                             ExtractionMetrics.ExtractionMetricsBuilder metrics) {
         Map<String, GradleDependencyConfiguration> results = new HashMap<>();
         List<Configuration> configurations = new ArrayList<>(configurationContainer);
+        // Converted dependencies of every configuration processed so far, so that identical subtrees are shared
+        // between configurations and are only serialized once
+        Map<ResolvedGroupArtifactVersion, List<org.openrewrite.maven.tree.ResolvedDependency>> converted = new HashMap<>();
         for (Configuration conf : configurations) {
-            try {
-                List<org.openrewrite.maven.tree.Dependency> requested = conf.getAllDependencies().stream()
-                        .map(dep -> dependency(dep, conf))
-                        .collect(Collectors.toList());
-
-                List<org.openrewrite.maven.tree.ResolvedDependency> resolved;
-                Map<GroupArtifact, org.openrewrite.maven.tree.Dependency> gaToRequested = requested.stream()
-                        .collect(Collectors.toMap(GradleProjectBuilder::groupArtifact, dep -> dep, (a, b) -> a));
-                String exceptionType = null;
-                String exceptionMessage = null;
-                // Archives and default are redundant with other configurations
-                // Newer versions of gradle display warnings with long stack traces when attempting to resolve them
-                // Some Scala plugin we don't care about creates configurations that, for some unknown reason, are difficult to resolve
-                if (conf.isCanBeResolved() && !"archives".equals(conf.getName()) && !"default".equals(conf.getName()) && !conf.getName().startsWith("incrementalScalaAnalysis")) {
-                    ResolvedConfiguration resolvedConf = conf.getResolvedConfiguration();
-                    if (resolvedConf.hasError()) {
-                        try {
-                            resolvedConf.rethrowFailure();
-                        } catch (ResolveException e) {
-                            exceptionType = e.getClass().getName();
-                            exceptionMessage = e.getMessage();
-                        }
-                    }
-                    Map<GroupArtifact, ResolvedDependency> gaToResolved = resolvedConf.getFirstLevelModuleDependencies().stream()
-                            .collect(Collectors.toMap(GradleProjectBuilder::groupArtifact, dep -> dep, (a, b) -> a));
-                    resolved = resolved(gaToRequested, gaToResolved);
-                } else {
-                    resolved = emptyList();
-                }
-                GradleDependencyConfiguration dc = new GradleDependencyConfiguration(conf.getName(), conf.getDescription(),
-                        conf.isTransitive(), conf.isCanBeResolved(), conf.isCanBeConsumed(), isCanBeDeclared(conf), emptyList(), requested, resolved, exceptionType, exceptionMessage, constraints(configurationContainer, conf), attributes(conf));
-                results.put(conf.getName(), dc);
-            } catch (Exception e) {
-                GradleDependencyConfiguration dc = new GradleDependencyConfiguration(conf.getName(), conf.getDescription(),
-                        conf.isTransitive(), conf.isCanBeResolved(), conf.isCanBeConsumed(), isCanBeDeclared(conf), emptyList(), emptyList(), emptyList(), e.getClass().getName(), e.getMessage(), constraints(configurationContainer, conf), attributes(conf));
-                results.put(conf.getName(), dc);
-            }
+            // Resolving a configuration may take long, e.g. when a repository is unreachable, so stop as soon as the
+            // client has given up on the build
+            cancellation.check();
+            results.put(conf.getName(), dependencyConfiguration(projectPath, configurationContainer, conf, selection.selects(conf), maxDepth, interners, metrics, converted));
         }
 
         // Record the relationships between dependency configurations
@@ -239,11 +253,126 @@ static Map<String, GradleDependencyConfiguration> dependencyConfigurations(Confi
         return results;
     }
 
-    private static List<org.openrewrite.gradle.marker.GradleDependencyConstraint> constraints(ConfigurationContainer configurations, Configuration conf) {
-        // Discover the results of other resolution strategy manipulation
-        // Model them as synthetic constraints so we have knowledge of them for later GradleProject updates
+    private static GradleDependencyConfiguration dependencyConfiguration(
+            @Nullable String projectPath,
+            ConfigurationContainer configurationContainer,
+            Configuration conf,
+            boolean resolve,
+            int maxDepth,
+            ModelInterners interners,
+            ExtractionMetrics.ExtractionMetricsBuilder metrics,
+            Map<ResolvedGroupArtifactVersion, List<org.openrewrite.maven.tree.ResolvedDependency>> converted) {
+        // An empty set of captured constraints stops unresolved configurations from being resolved to infer them
+        Set<GradleDependencyConstraint> inferredConstraints = resolve ? null : new HashSet<>();
+        ExtractionEvents.Event event = ExtractionEvents.begin(ExtractionEvents.Kind.RESOLVE_CONFIGURATION);
+        long start = System.nanoTime();
+        boolean resolving = false;
+        GradleDependencyConfiguration result;
+        long constraintsStart;
+        try {
+            List<org.openrewrite.maven.tree.Dependency> requested = conf.getAllDependencies().stream()
+                    .map(dep -> dependency(dep, conf, interners))
+                    .collect(Collectors.toList());
+
+            List<org.openrewrite.maven.tree.ResolvedDependency> resolved;
+            Map<GroupArtifact, org.openrewrite.maven.tree.Dependency> gaToRequested = requested.stream()
+                    .collect(Collectors.toMap(interners::groupArtifact, dep -> dep, (a, b) -> a));
+            String exceptionType = null;
+            String exceptionMessage = null;
+            // Archives and default are redundant with other configurations
+            // Newer versions of gradle display warnings with long stack traces when attempting to resolve them
+            // Some Scala plugin we don't care about creates configurations that, for some unknown reason, are difficult to resolve
+            if (resolve && conf.isCanBeResolved() && !"archives".equals(conf.getName()) && !"default".equals(conf.getName()) && !conf.getName().startsWith("incrementalScalaAnalysis")) {
+                resolving = true;
+                inferredConstraints = captureInferredConstraints(conf);
+                ResolvedConfiguration resolvedConf = conf.getResolvedConfiguration();
+                if (resolvedConf.hasError()) {
+                    try {
+                        resolvedConf.rethrowFailure();
+                    } catch (ResolveException e) {
+                        exceptionType = e.getClass().getName();
+                        exceptionMessage = e.getMessage();
+                    }
+                }
+                Map<GroupArtifact, ResolvedDependency> gaToResolved = resolvedConf.getFirstLevelModuleDependencies().stream()
+                        .collect(Collectors.toMap(interners::groupArtifact, dep -> dep, (a, b) -> a));
+                resolved = resolved(gaToRequested, gaToResolved, maxDepth, interners, converted);
+            } else {
+                resolved = emptyList();
+            }
+            constraintsStart = System.nanoTime();
+            result = new GradleDependencyConfiguration(conf.getName(), conf.getDescription(),
+                    conf.isTransitive(), conf.isCanBeResolved(), conf.isCanBeConsumed(), isCanBeDeclared(conf), emptyList(), requested, resolved, exceptionType, exceptionMessage, constraints(projectPath, configurationContainer, conf, inferredConstraints), attributes(conf));
+        } catch (Exception e) {
+            constraintsStart = System.nanoTime();
+            result = new GradleDependencyConfiguration(conf.getName(), conf.getDescription(),
+                    conf.isTransitive(), conf.isCanBeResolved(), conf.isCanBeConsumed(), isCanBeDeclared(conf), emptyList(), emptyList(), emptyList(), e.getClass().getName(), e.getMessage(), constraints(projectPath, configurationContainer, conf, inferredConstraints), attributes(conf));
+        }
+        long end = System.nanoTime();
+        int resolvedDependencies = result.getResolved().size();
+        metrics.configuration(ExtractionMetrics.ConfigurationMetrics.builder()
+                .name(conf.getName())
+                .resolved(resolving)
+                .notSelected(!resolve && conf.isCanBeResolved())
+                .resolveNanos(constraintsStart - start)
+                .constraintsNanos(end - constraintsStart)
+                .requestedDependencies(result.getRequested().size())
+                .directDependencies(result.getDirectResolved().size())
+                .resolvedDependencies(resolvedDependencies)
+                .build());
+        event.commit(projectPath, conf.getName(), resolvedDependencies);
+        return result;
+    }
+
+    /**
+     * Discover the results of other resolution strategy manipulation while the configuration itself is resolved.
+     * Model them as synthetic constraints so we have knowledge of them for later GradleProject updates.
+     *
+     * @return The set which will be filled in when the configuration is resolved, or null when a rule can no longer be
+     * attached to the configuration, e.g. because something else already resolved it.
+     */
+    private static @Nullable Set<GradleDependencyConstraint> captureInferredConstraints(Configuration conf) {
+        if (conf.getState() != Configuration.State.UNRESOLVED) {
+            return null;
+        }
         Set<GradleDependencyConstraint> inferredConstraints = new HashSet<>();
-        if (conf.isCanBeResolved()) {
+        try {
+            // Rules run in the order they were added, so this sees the outcome of every rule the build itself declared
+            conf.getResolutionStrategy().eachDependency(details -> inferConstraint(details, inferredConstraints));
+        } catch (Exception e) {
+            return null;
+        }
+        return inferredConstraints;
+    }
+
+    private static void inferConstraint(DependencyResolveDetails details, Set<GradleDependencyConstraint> inferredConstraints) {
+        ModuleVersionSelector target = details.getTarget();
+        if (!details.getRequested().equals(target)) {
+            inferredConstraints.add(GradleDependencyConstraint.builder()
+                    .groupId(target.getGroup())
+                    .artifactId(target.getName())
+                    .strictVersion(target.getVersion())
+                    .build());
+        }
+    }
+
+    private static List<org.openrewrite.gradle.marker.GradleDependencyConstraint> constraints(
+            @Nullable String projectPath,
+            ConfigurationContainer configurations,
+            Configuration conf,
+            @Nullable Set<GradleDependencyConstraint> capturedConstraints) {
+        ExtractionEvents.Event event = ExtractionEvents.begin(ExtractionEvents.Kind.INFER_CONSTRAINTS);
+        List<org.openrewrite.gradle.marker.GradleDependencyConstraint> constraints = constraints(configurations, conf, capturedConstraints);
+        event.commit(projectPath, conf.getName(), constraints.size());
+        return constraints;
+    }
+
+    private static List<org.openrewrite.gradle.marker.GradleDependencyConstraint> constraints(
+            ConfigurationContainer configurations,
+            Configuration conf,
+            @Nullable Set<GradleDependencyConstraint> capturedConstraints) {
+        Set<GradleDependencyConstraint> inferredConstraints = capturedConstraints == null ? new HashSet<>() : capturedConstraints;
+        if (capturedConstraints == null && conf.isCanBeResolved()) {
             try {
                 // If conf has already been resolved it is an error to attach a new resolutionStrategy to it
                 // So create a new configuration which can inherit everything we're interested in and resolve that
@@ -254,16 +383,7 @@ private static List<org.openrewrite.gradle.marker.GradleDependencyConstraint> co
                 }
                 Configuration inheritor = configurations.create(name);
                 inheritor.extendsFrom(conf);
-                inheritor.getResolutionStrategy().eachDependency(details -> {
-                    ModuleVersionSelector target = details.getTarget();
-                    if (!details.getRequested().equals(target)) {
-                        inferredConstraints.add(GradleDependencyConstraint.builder()
-                                .groupId(target.getGroup())
-                                .artifactId(target.getName())
-                                .strictVersion(target.getVersion())
-                                .build());
-                    }
-                });
+                inheritor.getResolutionStrategy().eachDependency(details -> inferConstraint(details, inferredConstraints));
                 inheritor.resolve();
             } catch (Exception e) {
                 // this is more of a nice-to-have than an essential
@@ -284,33 +404,27 @@ private static List<org.openrewrite.gradle.marker.GradleDependencyConstraint> co
         return GradleDependencyConfiguration.merge(inferredConstraints, configuredConstraints);
     }
 
-    private static final Map<GroupArtifactVersion, org.openrewrite.maven.tree.Dependency>
-            requestedCache = new ConcurrentHashMap<>();
-
-    private static org.openrewrite.maven.tree.Dependency dependency(Dependency dep, Configuration configuration) {
-        GroupArtifactVersion gav = groupArtifactVersion(dep);
-        return requestedCache.computeIfAbsent(gav, it -> {
-            Map<String, String> attributes = attributes(dep);
+    static org.openrewrite.maven.tree.Dependency dependency(Dependency dep, Configuration configuration, ModelInterners interners) {
+        GroupArtifactVersion gav = interners.groupArtifactVersion(dep);
+        Map<String, String> attributes = attributes(dep);
 
-            String type = "jar";
-            if(Optional.ofNullable(Category.from(attributes.get(Category.key())))
-                    .filter(cat -> cat == Category.REGULAR_PLATFORM || cat == Category.ENFORCED_PLATFORM)
-                    .isPresent()) {
-                type = "pom";
-            }
+        String type = "jar";
+        if(Optional.ofNullable(Category.from(attributes.get(Category.key())))
+                .filter(cat -> cat == Category.REGULAR_PLATFORM || cat == Category.ENFORCED_PLATFORM)
+                .isPresent()) {
+            type = "pom";
+        }
 
-            return org.openrewrite.maven.tree.Dependency.builder()
-                            .gav(gav)
-                            .type(type)
-                            .scope(configuration.getName())
-                            .exclusions(emptyList())
-                            .attributes(attributes)
-                            .build();
-                }
-        );
+        return interners.requested(org.openrewrite.maven.tree.Dependency.builder()
+                .gav(gav)
+                .type(type)
+                .scope(configuration.getName())
+                .exclusions(emptyList())
+                .attributes(attributes)
+                .build());
     }
 
-    private static Map<String, String> attributes(Object maybeAttributed) {
+    static Map<String, String> attributes(Object maybeAttributed) {
         if (!(maybeAttributed instanceof HasAttributes)) {
             return emptyMap();
         }
@@ -346,38 +460,33 @@ private static String projectPath(ProjectDependency pd) {
         }
     }
 
-    private static List<org.openrewrite.maven.tree.ResolvedDependency> resolved(
+    static List<org.openrewrite.maven.tree.ResolvedDependency> resolved(
             Map<GroupArtifact, org.openrewrite.maven.tree.Dependency> gaToRequested,
-            Map<GroupArtifact, ResolvedDependency> gaToResolved) {
+            Map<GroupArtifact, ResolvedDependency> gaToResolved,
+            int maxDepth,
+            ModelInterners interners,
+            Map<ResolvedGroupArtifactVersion, List<org.openrewrite.maven.tree.ResolvedDependency>> converted) {
         Map<org.openrewrite.maven.tree.ResolvedGroupArtifactVersion, org.openrewrite.maven.tree.ResolvedDependency>
                 resolvedCache = new HashMap<>();
-        return gaToResolved.entrySet().stream()
-                .map(entry -> {
-                    GroupArtifact ga = entry.getKey();
-                    ResolvedDependency resolved = entry.getValue();
-
-                    // Gradle knows which repository it got a dependency from, but haven't been able to find where that info lives
-                    ResolvedGroupArtifactVersion resolvedGav = resolvedGroupArtifactVersion(resolved);
-                    org.openrewrite.maven.tree.ResolvedDependency resolvedDependency = resolvedCache.get(resolvedGav);
-                    if (resolvedDependency == null) {
-                        org.openrewrite.maven.tree.Dependency requested = gaToRequested.getOrDefault(ga, dependency(resolved));
-                        resolvedDependency = org.openrewrite.maven.tree.ResolvedDependency.builder()
-                                .gav(resolvedGav)
-                                // There may not be a requested entry if a dependency substitution rule took effect
-                                // the DependencyHandler has the substitution mapping buried inside it, but not exposed publicly
-                                .requested(requested)
-                                .dependencies(resolved.getChildren().stream()
-                                        .map(child -> resolved(child, 1, resolvedCache))
-                                        .collect(toList()))
-                                .licenses(emptyList())
-                                .type(requested.getType())
-                                .depth(0)
-                                .build();
-                        resolvedCache.put(resolvedGav, resolvedDependency);
-                    }
-                    return resolvedDependency;
-                })
-                .collect(Collectors.toList());
+        Set<Position> mismatched = new HashSet<>();
+        Deque<Conversion> stack = new ArrayDeque<>();
+        List<org.openrewrite.maven.tree.ResolvedDependency> resolved = new ArrayList<>(gaToResolved.size());
+        for (Map.Entry<GroupArtifact, ResolvedDependency> entry : gaToResolved.entrySet()) {
+            // There may not be a requested entry if a dependency substitution rule took effect
+            // the DependencyHandler has the substitution mapping buried inside it, but not exposed publicly
+            org.openrewrite.maven.tree.Dependency requested = gaToRequested.get(entry.getKey());
+            resolved.add(convert(entry.getValue(), requested, 0, maxDepth, interners, resolvedCache, mismatched, converted, stack));
+            while (!stack.isEmpty()) {
+                Conversion parent = stack.peek();
+                if (!parent.getChildren().hasNext()) {
+                    stack.pop();
+                    continue;
+                }
+                parent.getDependencies().add(convert(parent.getChildren().next(), null, parent.getDepth() + 1, maxDepth,
+                        interners, resolvedCache, mismatched, converted, stack));
+            }
+        }
+        return resolved;
     }
 
     /**
@@ -386,58 +495,225 @@ private static List<org.openrewrite.maven.tree.ResolvedDependency> resolved(
      * obvious way to access the resolution of transitive dependencies to figure out what versions are requested during
      * the resolution process.
      */
-    private static org.openrewrite.maven.tree.Dependency dependency(ResolvedDependency dep) {
-        GroupArtifactVersion gav = groupArtifactVersion(dep);
-        return requestedCache.computeIfAbsent(gav, it -> {
-            // Synthesize a Category attribute if this is a BOM
-            String type = "jar";
-            Map<String, String> attributes = Collections.emptyMap();
-            // Both enforcedPlatform() and platform() appear the same in this context, so assume platform()
-            if (dep.getConfiguration().startsWith("platform-")) {
-                attributes = Collections.singletonMap(Category.key(), "platform");
-                type = "pom";
-            }
+    private static org.openrewrite.maven.tree.Dependency dependency(ResolvedDependency dep, ModelInterners interners) {
+        GroupArtifactVersion gav = interners.groupArtifactVersion(dep);
+        // Synthesize a Category attribute if this is a BOM
+        String type = "jar";
+        Map<String, String> attributes = Collections.emptyMap();
+        // Both enforcedPlatform() and platform() appear the same in this context, so assume platform()
+        if (dep.getConfiguration().startsWith("platform-")) {
+            attributes = Collections.singletonMap(Category.key(), "platform");
+            type = "pom";
+        }
 
-            return org.openrewrite.maven.tree.Dependency.builder()
-                    .gav(gav)
-                    // platform() dependencies are effectively BOMs, so their jar isn't actually used
-                    .type(type)
-                    .attributes(attributes)
-                    .scope(dep.getConfiguration())
-                    .exclusions(emptyList())
-                    .build();
-        });
+        return interners.requested(org.openrewrite.maven.tree.Dependency.builder()
+                .gav(gav)
+                // platform() dependencies are effectively BOMs, so their jar isn't actually used
+                .type(type)
+                .attributes(attributes)
+                .scope(dep.getConfiguration())
+                .exclusions(emptyList())
+                .build());
     }
 
-    private static org.openrewrite.maven.tree.ResolvedDependency resolved(
-            ResolvedDependency dep, int depth,
-            Map<org.openrewrite.maven.tree.ResolvedGroupArtifactVersion, org.openrewrite.maven.tree.ResolvedDependency> resolvedCache
+    /**
+     * Convert a single dependency. When it has not been converted before, its dependencies are left for the caller to
+     * convert, which it does in the order of a depth first traversal by working through the {@code stack}. Doing so
+     * iteratively rather than recursively keeps arbitrarily deep dependency graphs from overflowing the call stack.
+     */
+    private static org.openrewrite.maven.tree.ResolvedDependency convert(
+            ResolvedDependency dep,
+            org.openrewrite.maven.tree.@Nullable Dependency requested,
+            int depth,
+            int maxDepth,
+            ModelInterners interners,
+            Map<org.openrewrite.maven.tree.ResolvedGroupArtifactVersion, org.openrewrite.maven.tree.ResolvedDependency> resolvedCache,
+            Set<Position> mismatched,
+            Map<ResolvedGroupArtifactVersion, List<org.openrewrite.maven.tree.ResolvedDependency>> converted,
+            Deque<Conversion> stack
     ) {
-        ResolvedGroupArtifactVersion resolvedGav = resolvedGroupArtifactVersion(dep);
+        // Gradle knows which repository it got a dependency from, but haven't been able to find where that info lives
+        ResolvedGroupArtifactVersion resolvedGav = interners.resolvedGroupArtifactVersion(dep);
         org.openrewrite.maven.tree.ResolvedDependency resolvedDependency = resolvedCache.get(resolvedGav);
-        if (resolvedDependency == null) {
-            List<org.openrewrite.maven.tree.ResolvedDependency> dependencies = new ArrayList<>();
-            org.openrewrite.maven.tree.Dependency requested = dependency(dep);
-            resolvedDependency = org.openrewrite.maven.tree.ResolvedDependency.builder()
-                    .gav(resolvedGav)
-                    .requested(requested)
-                    .dependencies(dependencies)
-                    .licenses(emptyList())
-                    .type(requested.getType())
-                    .depth(depth)
-                    .build();
-            //we add a temporal resolved dependency in the cache to avoid stackoverflow with dependencies that have cycles
-            resolvedCache.put(resolvedGav, resolvedDependency);
-            dep.getChildren().forEach(child -> dependencies.add(resolved(child, depth + 1, resolvedCache)));
+        if (resolvedDependency != null) {
+            return resolvedDependency;
+        }
+        if (requested == null) {
+            requested = dependency(dep, interners);
+        }
+        boolean truncated = truncated(dep, depth, maxDepth);
+        if (!truncated) {
+            resolvedDependency = previouslyConverted(dep, requested, depth, maxDepth, interners, resolvedCache, mismatched, converted);
+            if (resolvedDependency != null) {
+                return resolvedDependency;
+            }
+        }
+        List<org.openrewrite.maven.tree.ResolvedDependency> dependencies = new ArrayList<>();
+        resolvedDependency = org.openrewrite.maven.tree.ResolvedDependency.builder()
+                .gav(resolvedGav)
+                .requested(requested)
+                .dependencies(dependencies)
+                .licenses(emptyList())
+                .type(requested.getType())
+                .depth(depth)
+                .build();
+        if (truncated) {
+            // Not cached, as the same dependency may also occur closer to the root where its dependencies are kept
+            return resolvedDependency;
+        }
+        //we add a temporal resolved dependency in the cache to avoid stackoverflow with dependencies that have cycles
+        resolvedCache.put(resolvedGav, resolvedDependency);
+        converted.computeIfAbsent(resolvedGav, k -> new ArrayList<>(1)).add(resolvedDependency);
+        if (!dep.getChildren().isEmpty()) {
+            stack.push(new Conversion(dependencies, dep.getChildren().iterator(), depth));
         }
         return resolvedDependency;
     }
 
+    /**
+     * Whether the dependencies of {@code dep} lie beyond the maximum depth, and so are left out of the model.
+     */
+    private static boolean truncated(ResolvedDependency dep, int depth, int maxDepth) {
+        return depth + 1 >= maxDepth && !dep.getChildren().isEmpty();
+    }
+
+    /**
+     * Find a dependency converted for an earlier configuration whose whole subtree is exactly what converting
+     * {@code dep} again would produce. Configurations frequently resolve the same subtrees, e.g. compileClasspath and
+     * testCompileClasspath, and sharing them saves memory and lets them be serialized once.
+     * On a match the shared subtree is registered in {@code resolvedCache} so that later occurrences within the
+     * current configuration resolve to the same instances.
+     * <p>
+     * When a comparison fails, the position of the differing dependency and of every dependency above it are recorded
+     * in {@code mismatched}. Converting their children then does not compare the same subtrees again, which would
+     * otherwise happen once for every level above a difference.
+     */
+    private static org.openrewrite.maven.tree.@Nullable ResolvedDependency previouslyConverted(
+            ResolvedDependency dep,
+            org.openrewrite.maven.tree.Dependency requested,
+            int depth,
+            int maxDepth,
+            ModelInterners interners,
+            Map<ResolvedGroupArtifactVersion, org.openrewrite.maven.tree.ResolvedDependency> resolvedCache,
+            Set<Position> mismatched,
+            Map<ResolvedGroupArtifactVersion, List<org.openrewrite.maven.tree.ResolvedDependency>> converted) {
+        ResolvedGroupArtifactVersion resolvedGav = interners.resolvedGroupArtifactVersion(dep);
+        List<org.openrewrite.maven.tree.ResolvedDependency> candidates = converted.get(resolvedGav);
+        if (candidates == null || mismatched.contains(new Position(resolvedGav, depth))) {
+            return null;
+        }
+        for (org.openrewrite.maven.tree.ResolvedDependency candidate : candidates) {
+            if (!requested.equals(candidate.getRequested())) {
+                continue;
+            }
+            Map<ResolvedGroupArtifactVersion, org.openrewrite.maven.tree.ResolvedDependency> matched = new HashMap<>();
+            if (sameSubtree(candidate, dep, depth, maxDepth, interners, resolvedCache, mismatched, matched)) {
+                resolvedCache.putAll(matched);
+                return candidate;
+            }
+        }
+        mismatched.add(new Position(resolvedGav, depth));
+        return null;
+    }
+
+    /**
+     * Compares the subtrees in the same depth first order in which {@link #convert} would have converted them, as
+     * whether a dependency is reused depends on which others have been seen before it.
+     */
+    private static boolean sameSubtree(
+            org.openrewrite.maven.tree.ResolvedDependency candidate,
+            ResolvedDependency dep,
+            int depth,
+            int maxDepth,
+            ModelInterners interners,
+            Map<ResolvedGroupArtifactVersion, org.openrewrite.maven.tree.ResolvedDependency> resolvedCache,
+            Set<Position> mismatched,
+            Map<ResolvedGroupArtifactVersion, org.openrewrite.maven.tree.ResolvedDependency> matched) {
+        Deque<Comparison> stack = new ArrayDeque<>();
+        stack.push(new Comparison(candidate, dep, depth, null));
+        while (!stack.isEmpty()) {
+            Comparison next = stack.pop();
+            if (!sameNode(next, maxDepth, interners, resolvedCache, matched, stack)) {
+                for (Comparison c = next; c != null; c = c.getParent()) {
+                    mismatched.add(new Position(interners.resolvedGroupArtifactVersion(c.getDependency()), c.getDepth()));
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares a single dependency, pushing the comparisons of its children when they are yet to be compared.
+     */
+    private static boolean sameNode(
+            Comparison next,
+            int maxDepth,
+            ModelInterners interners,
+            Map<ResolvedGroupArtifactVersion, org.openrewrite.maven.tree.ResolvedDependency> resolvedCache,
+            Map<ResolvedGroupArtifactVersion, org.openrewrite.maven.tree.ResolvedDependency> matched,
+            Deque<Comparison> stack) {
+        org.openrewrite.maven.tree.ResolvedDependency c = next.getCandidate();
+        ResolvedDependency d = next.getDependency();
+        ResolvedGroupArtifactVersion resolvedGav = interners.resolvedGroupArtifactVersion(d);
+        if (!resolvedGav.equals(c.getGav())) {
+            return false;
+        }
+        // Conversion reuses whatever instance it has already seen for a coordinate, regardless of where it appears
+        org.openrewrite.maven.tree.ResolvedDependency seen = resolvedCache.get(resolvedGav);
+        if (seen == null) {
+            seen = matched.get(resolvedGav);
+        }
+        if (seen != null) {
+            return seen == c;
+        }
+        if (c.getDepth() != next.getDepth() ||
+            (next.getDepth() > 0 && !dependency(d, interners).equals(c.getRequested()))) {
+            return false;
+        }
+        List<org.openrewrite.maven.tree.ResolvedDependency> candidateChildren = c.getDependencies();
+        if (truncated(d, next.getDepth(), maxDepth)) {
+            return candidateChildren.isEmpty();
+        }
+        matched.put(resolvedGav, c);
+        if (candidateChildren.size() != d.getChildren().size()) {
+            return false;
+        }
+        List<ResolvedDependency> children = new ArrayList<>(d.getChildren());
+        for (int i = children.size() - 1; i >= 0; i--) {
+            stack.push(new Comparison(candidateChildren.get(i), children.get(i), next.getDepth() + 1, next));
+        }
+        return true;
+    }
+
+    @Value
+    private static class Conversion {
+        List<org.openrewrite.maven.tree.ResolvedDependency> dependencies;
+        Iterator<ResolvedDependency> children;
+        int depth;
+    }
+
+    @Value
+    private static class Comparison {
+        org.openrewrite.maven.tree.ResolvedDependency candidate;
+        ResolvedDependency dependency;
+        int depth;
+
+        @Nullable
+        Comparison parent;
+    }
+
+    @Value
+    private static class Position {
+        ResolvedGroupArtifactVersion gav;
+        int depth;
+    }
+
+    /**
+     * Interners are discarded together with the build they belong to, so this is only needed to release them early.
+     */
     @SuppressWarnings("unused")
     public static void clearCaches() {
-        requestedCache.clear();
-        groupArtifactCache.clear();
-        groupArtifactVersionCache.clear();
-        resolvedGroupArtifactVersionCache.clear();
+        ModelInterners.clearAll();
     }
 }
@@ -58,7 +58,7 @@ public static GradleSettings gradleSettings(Settings settings) {
                 new GradleBuildscript(
                         randomId(),
                         new ArrayList<>(pluginRepositories),
-                        GradleProjectBuilder.dependencyConfigurations(settings.getBuildscript().getConfigurations())
+                        GradleProjectBuilder.dependencyConfigurations(settings)
                 )
         );
     }
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.marker;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Canonicalizes equal values to a single instance. Entries are held weakly, so a value is forgotten once nothing but
+ * the interner refers to it, and the interner stops taking on new values once it holds {@code maxSize} of them.
+ * Safe for use by several threads at once.
+ */
+final class Interner<T> {
+    private final int maxSize;
+    private final Map<T, WeakReference<T>> values = new WeakHashMap<>();
+
+    private long hits;
+    private long misses;
+
+    Interner(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    synchronized T intern(T value) {
+        WeakReference<T> ref = values.get(value);
+        T canonical = ref == null ? null : ref.get();
+        if (canonical != null) {
+            hits++;
+            return canonical;
+        }
+        misses++;
+        if (values.size() < maxSize) {
+            values.put(value, new WeakReference<>(value));
+        }
+        return value;
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized int size() {
+        return values.size();
+    }
+
+    synchronized void clear() {
+        values.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "size=" + values.size() + ", hits=" + hits + ", misses=" + misses;
+    }
+}
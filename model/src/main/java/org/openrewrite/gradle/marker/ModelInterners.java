@@ -0,0 +1,128 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.marker;
+
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ResolvedDependency;
+import org.gradle.api.invocation.Gradle;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.maven.tree.GroupArtifact;
+import org.openrewrite.maven.tree.GroupArtifactVersion;
+import org.openrewrite.maven.tree.ResolvedGroupArtifactVersion;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The interners used while building the models of the projects of one build, so that a coordinate or requested
+ * dependency which occurs in many configurations and projects is represented by a single instance.
+ * <p>
+ * Interners are looked up by the build's {@link Gradle} instance, and so are discarded together with it rather than
+ * accumulating in a long-lived daemon across every build it ever runs.
+ */
+final class ModelInterners {
+    static final int DEFAULT_MAX_SIZE = 100_000;
+
+    private static final Map<Gradle, ModelInterners> byBuild = Collections.synchronizedMap(new WeakHashMap<>());
+
+    final Interner<GroupArtifact> groupArtifacts;
+    final Interner<GroupArtifactVersion> groupArtifactVersions;
+    final Interner<ResolvedGroupArtifactVersion> resolvedGroupArtifactVersions;
+    final Interner<org.openrewrite.maven.tree.Dependency> requested;
+
+    ModelInterners() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    ModelInterners(int maxSize) {
+        groupArtifacts = new Interner<>(maxSize);
+        groupArtifactVersions = new Interner<>(maxSize);
+        resolvedGroupArtifactVersions = new Interner<>(maxSize);
+        requested = new Interner<>(maxSize);
+    }
+
+    static ModelInterners forBuild(Gradle gradle) {
+        return byBuild.computeIfAbsent(gradle, g -> new ModelInterners());
+    }
+
+    static void clearAll() {
+        synchronized (byBuild) {
+            byBuild.clear();
+        }
+    }
+
+    GroupArtifact groupArtifact(org.openrewrite.maven.tree.Dependency dep) {
+        //noinspection ConstantConditions
+        return groupArtifacts.intern(new GroupArtifact(dep.getGroupId(), dep.getArtifactId()));
+    }
+
+    GroupArtifact groupArtifact(ResolvedDependency dep) {
+        return groupArtifacts.intern(new GroupArtifact(dep.getModuleGroup(), dep.getModuleName()));
+    }
+
+    GroupArtifactVersion groupArtifactVersion(ResolvedDependency dep) {
+        return groupArtifactVersions.intern(new GroupArtifactVersion(dep.getModuleGroup(), dep.getModuleName(),
+                unspecifiedToNull(dep.getModuleVersion())));
+    }
+
+    GroupArtifactVersion groupArtifactVersion(Dependency dep) {
+        return groupArtifactVersions.intern(new GroupArtifactVersion(dep.getGroup(), dep.getName(),
+                unspecifiedToNull(dep.getVersion())));
+    }
+
+    ResolvedGroupArtifactVersion resolvedGroupArtifactVersion(ResolvedDependency dep) {
+        return resolvedGroupArtifactVersions.intern(new ResolvedGroupArtifactVersion(
+                null, dep.getModuleGroup(), dep.getModuleName(), dep.getModuleVersion(), null));
+    }
+
+    /**
+     * Requested dependencies are interned whole, so that two configurations only share one when it has the same
+     * scope, type and attributes in both.
+     */
+    org.openrewrite.maven.tree.Dependency requested(org.openrewrite.maven.tree.Dependency dep) {
+        return requested.intern(dep);
+    }
+
+    long hits() {
+        return groupArtifacts.getHits() + groupArtifactVersions.getHits() +
+               resolvedGroupArtifactVersions.getHits() + requested.getHits();
+    }
+
+    long misses() {
+        return groupArtifacts.getMisses() + groupArtifactVersions.getMisses() +
+               resolvedGroupArtifactVersions.getMisses() + requested.getMisses();
+    }
+
+    /**
+     * Some Gradle dependency functions will have the String "unspecified" to indicate a missing value.
+     * Rewrite's dependency API represents these missing things as "null"
+     */
+    static @Nullable String unspecifiedToNull(@Nullable String maybeUnspecified) {
+        if ("unspecified".equals(maybeUnspecified)) {
+            return null;
+        }
+        return maybeUnspecified;
+    }
+
+    @Override
+    public String toString() {
+        return "groupArtifacts[" + groupArtifacts + "], " +
+               "groupArtifactVersions[" + groupArtifactVersions + "], " +
+               "resolvedGroupArtifactVersions[" + resolvedGroupArtifactVersions + "], " +
+               "requested[" + requested + "]";
+    }
+}
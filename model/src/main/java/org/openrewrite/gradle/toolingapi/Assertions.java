@@ -25,6 +25,7 @@
 import org.openrewrite.gradle.util.GradleWrapper;
 import org.openrewrite.groovy.tree.G;
 import org.openrewrite.kotlin.tree.K;
+import org.openrewrite.marker.Marker;
 import org.openrewrite.marker.OperatingSystemProvenance;
 import org.openrewrite.properties.tree.Properties;
 import org.openrewrite.test.UncheckedConsumer;
@@ -32,8 +33,10 @@
 import org.openrewrite.toml.tree.Toml;
 import org.opentest4j.TestAbortedException;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -49,6 +52,30 @@
 
 public class Assertions {
 
+    /**
+     * A directory in which {@link #withToolingApi(GradleWrapper, String)} and the overloads delegating to it cache
+     * models, see {@link #withToolingApi(GradleWrapper, String, OpenRewriteModelCache)}. Unset to disable caching.
+     */
+    public static final String CACHE_DIRECTORY_PROPERTY = "org.openrewrite.gradle.toolingapi.test.cacheDirectory";
+
+    /**
+     * Set to true to have {@link #withRecordedToolingApi(Path)} extract and record models rather than replay them.
+     */
+    public static final String RECORD_PROPERTY = "org.openrewrite.gradle.toolingapi.test.record";
+
+    private static final int MAX_CACHED_FIXTURES = 512;
+
+    /**
+     * Markers by source path, keyed by {@link #fixtureKey(List, GradleWrapper, String)}.
+     */
+    private static final Map<String, Map<Path, Marker>> FIXTURES = Collections.synchronizedMap(
+            new LinkedHashMap<String, Map<Path, Marker>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Map<Path, Marker>> eldest) {
+                    return size() > MAX_CACHED_FIXTURES;
+                }
+            });
+
     public static UncheckedConsumer<List<SourceFile>> withToolingApi(URI distributionUrl) {
         return withToolingApi(GradleWrapper.create(distributionUrl, new InMemoryExecutionContext()));
     }
@@ -63,140 +90,277 @@ public static UncheckedConsumer<List<SourceFile>> withToolingApi(@Nullable Gradl
     }
 
     public static UncheckedConsumer<List<SourceFile>> withToolingApi(@Nullable GradleWrapper gradleWrapper, @Nullable String initScriptContents) {
+        String cacheDirectory = System.getProperty(CACHE_DIRECTORY_PROPERTY);
+        return withToolingApi(gradleWrapper, initScriptContents, cacheDirectory == null ? null : OpenRewriteModelCache.in(new File(cacheDirectory)));
+    }
+
+    /**
+     * Attach markers to the Gradle files of a test the same way as {@link #withToolingApi(GradleWrapper, String)}, but
+     * reuse the markers of earlier tests whose Gradle files, wrapper and init script are identical. They are kept in
+     * memory for the lifetime of the JVM and in the given cache across runs, so identical fixtures do not start Gradle.
+     * Since the cache is keyed by the build's files only, dynamic dependency versions keep resolving to what they did
+     * when an entry was written, see {@link OpenRewriteModelCache#getMaxAge()}.
+     *
+     * @param cache Where models are kept across runs, or null to always extract them.
+     */
+    public static UncheckedConsumer<List<SourceFile>> withToolingApi(@Nullable GradleWrapper gradleWrapper, @Nullable String initScriptContents,
+                                                                     @Nullable OpenRewriteModelCache cache) {
+        OpenRewriteModelOptions options = OpenRewriteModelOptions.builder()
+                .initScript(initScriptContents)
+                .cache(cache)
+                .build();
+        return sourceFiles -> {
+            if (cache == null) {
+                extract(sourceFiles, gradleWrapper, options);
+                return;
+            }
+            String key = fixtureKey(sourceFiles, gradleWrapper, initScriptContents);
+            Map<Path, Marker> markers = FIXTURES.get(key);
+            if (markers != null) {
+                attach(sourceFiles, markers);
+                return;
+            }
+            extract(sourceFiles, gradleWrapper, options);
+            FIXTURES.put(key, markers(sourceFiles));
+        };
+    }
+
+    /**
+     * Attach markers recorded in a fixture file rather than extracting them, so that the test neither starts Gradle
+     * nor needs a Gradle distribution or network access. Run with {@code -Dorg.openrewrite.gradle.toolingapi.test.record=true}
+     * to extract the markers with {@link #withToolingApi(GradleWrapper, String)} and (re)write the fixture instead.
+     * A fixture recorded for different Gradle files fails the test as stale.
+     *
+     * @param fixture The fixture file, typically kept next to the test, e.g. {@code src/test/resources/gradle/myTest.model}.
+     */
+    public static UncheckedConsumer<List<SourceFile>> withRecordedToolingApi(Path fixture) {
+        return withRecordedToolingApi(fixture, null, null);
+    }
+
+    public static UncheckedConsumer<List<SourceFile>> withRecordedToolingApi(Path fixture, @Nullable GradleWrapper gradleWrapper,
+                                                                             @Nullable String initScriptContents) {
         return sourceFiles -> {
+            String key = fixtureKey(sourceFiles, gradleWrapper, initScriptContents);
             try {
-                Path tempDirectory = Files.createTempDirectory("project");
-                // Usage of Assertions.mavenProject() might result in gradle files inside a subdirectory
-                Path projectDir = tempDirectory;
-                try {
-                    for (SourceFile sourceFile : sourceFiles) {
-                        if (sourceFile instanceof K.CompilationUnit) {
-                            K.CompilationUnit k = (K.CompilationUnit) sourceFile;
-                            if (k.getSourcePath().toString().endsWith(".gradle.kts")) {
-                                Path kotlinGradle = tempDirectory.resolve(k.getSourcePath());
-                                if (!tempDirectory.equals(kotlinGradle.getParent()) && tempDirectory.equals(kotlinGradle.getParent().getParent())) {
-                                    projectDir = kotlinGradle.getParent();
-                                }
-                                Files.createDirectories(kotlinGradle.getParent());
-                                Files.write(kotlinGradle, k.printAllAsBytes());
+                if (Boolean.getBoolean(RECORD_PROPERTY)) {
+                    extract(sourceFiles, gradleWrapper, OpenRewriteModelOptions.builder().initScript(initScriptContents).build());
+                    RecordedModels.write(fixture, key, markers(sourceFiles));
+                } else if (Files.exists(fixture)) {
+                    attach(sourceFiles, RecordedModels.read(fixture, key));
+                } else {
+                    throw new IllegalStateException("No models have been recorded in " + fixture.toAbsolutePath() +
+                                                    " yet. Record them with -D" + RECORD_PROPERTY + "=true");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private static Map<Path, Marker> markers(List<SourceFile> sourceFiles) {
+        Map<Path, Marker> markers = new LinkedHashMap<>();
+        for (SourceFile sourceFile : sourceFiles) {
+            Optional<GradleProject> gradleProject = sourceFile.getMarkers().findFirst(GradleProject.class);
+            Optional<GradleSettings> gradleSettings = sourceFile.getMarkers().findFirst(GradleSettings.class);
+            if (gradleProject.isPresent()) {
+                markers.put(sourceFile.getSourcePath(), gradleProject.get());
+            } else if (gradleSettings.isPresent()) {
+                markers.put(sourceFile.getSourcePath(), gradleSettings.get());
+            }
+        }
+        return markers;
+    }
+
+    private static void attach(List<SourceFile> sourceFiles, Map<Path, Marker> markers) {
+        for (int i = 0; i < sourceFiles.size(); i++) {
+            SourceFile sourceFile = sourceFiles.get(i);
+            Marker marker = markers.get(sourceFile.getSourcePath());
+            if (marker != null) {
+                sourceFiles.set(i, sourceFile.withMarkers(sourceFile.getMarkers().setByType(marker)));
+            }
+        }
+    }
+
+    private static void extract(List<SourceFile> sourceFiles, @Nullable GradleWrapper gradleWrapper, OpenRewriteModelOptions options) {
+        try {
+            Path tempDirectory = Files.createTempDirectory("project");
+            // Usage of Assertions.mavenProject() might result in gradle files inside a subdirectory
+            Path projectDir = tempDirectory;
+            try {
+                for (SourceFile sourceFile : sourceFiles) {
+                    if (sourceFile instanceof K.CompilationUnit) {
+                        K.CompilationUnit k = (K.CompilationUnit) sourceFile;
+                        if (k.getSourcePath().toString().endsWith(".gradle.kts")) {
+                            Path kotlinGradle = tempDirectory.resolve(k.getSourcePath());
+                            if (!tempDirectory.equals(kotlinGradle.getParent()) && tempDirectory.equals(kotlinGradle.getParent().getParent())) {
+                                projectDir = kotlinGradle.getParent();
                             }
-                        } else if (sourceFile instanceof G.CompilationUnit) {
-                            G.CompilationUnit g = (G.CompilationUnit) sourceFile;
-                            if (g.getSourcePath().toString().endsWith(".gradle")) {
-                                Path groovyGradle = tempDirectory.resolve(g.getSourcePath());
-                                if (!tempDirectory.equals(groovyGradle.getParent()) && tempDirectory.equals(groovyGradle.getParent().getParent())) {
-                                    projectDir = groovyGradle.getParent();
-                                }
-                                Files.createDirectories(groovyGradle.getParent());
-                                Files.write(groovyGradle, g.printAllAsBytes());
+                            Files.createDirectories(kotlinGradle.getParent());
+                            Files.write(kotlinGradle, k.printAllAsBytes());
+                        }
+                    } else if (sourceFile instanceof G.CompilationUnit) {
+                        G.CompilationUnit g = (G.CompilationUnit) sourceFile;
+                        if (g.getSourcePath().toString().endsWith(".gradle")) {
+                            Path groovyGradle = tempDirectory.resolve(g.getSourcePath());
+                            if (!tempDirectory.equals(groovyGradle.getParent()) && tempDirectory.equals(groovyGradle.getParent().getParent())) {
+                                projectDir = groovyGradle.getParent();
                             }
-                        } else if (sourceFile instanceof Properties.File) {
-                            Properties.File f = (Properties.File) sourceFile;
-                            if (f.getSourcePath().endsWith("gradle.properties")) {
-                                Path gradleProperties = tempDirectory.resolve(f.getSourcePath());
-                                if (!tempDirectory.equals(gradleProperties.getParent()) && tempDirectory.equals(gradleProperties.getParent().getParent())) {
-                                    projectDir = gradleProperties.getParent();
-                                }
-                                Files.createDirectories(gradleProperties.getParent());
-                                Files.write(gradleProperties, f.printAllAsBytes());
+                            Files.createDirectories(groovyGradle.getParent());
+                            Files.write(groovyGradle, g.printAllAsBytes());
+                        }
+                    } else if (sourceFile instanceof Properties.File) {
+                        Properties.File f = (Properties.File) sourceFile;
+                        if (f.getSourcePath().endsWith("gradle.properties")) {
+                            Path gradleProperties = tempDirectory.resolve(f.getSourcePath());
+                            if (!tempDirectory.equals(gradleProperties.getParent()) && tempDirectory.equals(gradleProperties.getParent().getParent())) {
+                                projectDir = gradleProperties.getParent();
                             }
-                        } else if (sourceFile instanceof Toml.Document) {
-                            Toml.Document d = (Toml.Document) sourceFile;
-                            if (d.getSourcePath().startsWith("gradle/") && d.getSourcePath().toString().endsWith(".versions.toml")) {
-                                Path versionCatalog = tempDirectory.resolve(d.getSourcePath());
-                                if (!tempDirectory.equals(versionCatalog.getParent()) && tempDirectory.equals(versionCatalog.getParent().getParent())) {
-                                    projectDir = versionCatalog.getParent();
-                                }
-                                Files.createDirectories(versionCatalog.getParent());
-                                Files.write(versionCatalog, d.printAllAsBytes());
+                            Files.createDirectories(gradleProperties.getParent());
+                            Files.write(gradleProperties, f.printAllAsBytes());
+                        }
+                    } else if (sourceFile instanceof Toml.Document) {
+                        Toml.Document d = (Toml.Document) sourceFile;
+                        if (d.getSourcePath().startsWith("gradle/") && d.getSourcePath().toString().endsWith(".versions.toml")) {
+                            Path versionCatalog = tempDirectory.resolve(d.getSourcePath());
+                            if (!tempDirectory.equals(versionCatalog.getParent()) && tempDirectory.equals(versionCatalog.getParent().getParent())) {
+                                projectDir = versionCatalog.getParent();
                             }
-                        } else if (sourceFile instanceof PlainText) {
-                            PlainText plainText = (PlainText) sourceFile;
-                            if (plainText.getSourcePath().endsWith("gradle.lockfile") || plainText.getSourcePath().endsWith("buildscript-gradle.lockfile")) {
-                                Path lockfile = tempDirectory.resolve(plainText.getSourcePath());
-                                if (!tempDirectory.equals(lockfile.getParent()) && tempDirectory.equals(lockfile.getParent().getParent())) {
-                                    projectDir = lockfile.getParent();
-                                }
-                                Files.createDirectories(lockfile.getParent());
-                                Files.write(lockfile, plainText.printAllAsBytes());
+                            Files.createDirectories(versionCatalog.getParent());
+                            Files.write(versionCatalog, d.printAllAsBytes());
+                        }
+                    } else if (sourceFile instanceof PlainText) {
+                        PlainText plainText = (PlainText) sourceFile;
+                        if (plainText.getSourcePath().endsWith("gradle.lockfile") || plainText.getSourcePath().endsWith("buildscript-gradle.lockfile")) {
+                            Path lockfile = tempDirectory.resolve(plainText.getSourcePath());
+                            if (!tempDirectory.equals(lockfile.getParent()) && tempDirectory.equals(lockfile.getParent().getParent())) {
+                                projectDir = lockfile.getParent();
                             }
+                            Files.createDirectories(lockfile.getParent());
+                            Files.write(lockfile, plainText.printAllAsBytes());
                         }
                     }
+                }
 
-                    if (gradleWrapper != null) {
-                        Files.createDirectories(projectDir.resolve("gradle/wrapper/"));
-                        Files.write(projectDir.resolve(GradleWrapper.WRAPPER_PROPERTIES_LOCATION),
-                                ("distributionBase=GRADLE_USER_HOME\n" +
-                                 "distributionPath=wrapper/dists\n" +
-                                 "distributionUrl=" + gradleWrapper.getPropertiesFormattedUrl() + "\n" +
-                                 ((gradleWrapper.getDistributionChecksum() == null) ? "" : "distributionSha256Sum=" + gradleWrapper.getDistributionChecksum().getHexValue() + "\n") +
-                                 "zipStoreBase=GRADLE_USER_HOME\n" +
-                                 "zipStorePath=wrapper/dists").getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE_NEW);
-                        Files.write(projectDir.resolve(GradleWrapper.WRAPPER_JAR_LOCATION), gradleWrapper.wrapperJar().printAllAsBytes(), StandardOpenOption.CREATE_NEW);
-                        Path gradleSh = projectDir.resolve(GradleWrapper.WRAPPER_SCRIPT_LOCATION);
-                        Files.copy(requireNonNull(UpdateGradleWrapper.class.getResourceAsStream("/gradlew")), gradleSh);
-                        OperatingSystemProvenance current = OperatingSystemProvenance.current();
-                        if (current.isLinux() || current.isMacOsX()) {
-                            Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(gradleSh);
-                            permissions.add(PosixFilePermission.OWNER_EXECUTE);
-                            Files.setPosixFilePermissions(gradleSh, permissions);
-                        }
-                        Files.copy(requireNonNull(UpdateGradleWrapper.class.getResourceAsStream("/gradlew.bat")), projectDir.resolve(GradleWrapper.WRAPPER_BATCH_LOCATION));
+                if (gradleWrapper != null) {
+                    Files.createDirectories(projectDir.resolve("gradle/wrapper/"));
+                    Files.write(projectDir.resolve(GradleWrapper.WRAPPER_PROPERTIES_LOCATION),
+                            ("distributionBase=GRADLE_USER_HOME\n" +
+                             "distributionPath=wrapper/dists\n" +
+                             "distributionUrl=" + gradleWrapper.getPropertiesFormattedUrl() + "\n" +
+                             ((gradleWrapper.getDistributionChecksum() == null) ? "" : "distributionSha256Sum=" + gradleWrapper.getDistributionChecksum().getHexValue() + "\n") +
+                             "zipStoreBase=GRADLE_USER_HOME\n" +
+                             "zipStorePath=wrapper/dists").getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE_NEW);
+                    Files.write(projectDir.resolve(GradleWrapper.WRAPPER_JAR_LOCATION), gradleWrapper.wrapperJar().printAllAsBytes(), StandardOpenOption.CREATE_NEW);
+                    Path gradleSh = projectDir.resolve(GradleWrapper.WRAPPER_SCRIPT_LOCATION);
+                    Files.copy(requireNonNull(UpdateGradleWrapper.class.getResourceAsStream("/gradlew")), gradleSh);
+                    OperatingSystemProvenance current = OperatingSystemProvenance.current();
+                    if (current.isLinux() || current.isMacOsX()) {
+                        Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(gradleSh);
+                        permissions.add(PosixFilePermission.OWNER_EXECUTE);
+                        Files.setPosixFilePermissions(gradleSh, permissions);
                     }
+                    Files.copy(requireNonNull(UpdateGradleWrapper.class.getResourceAsStream("/gradlew.bat")), projectDir.resolve(GradleWrapper.WRAPPER_BATCH_LOCATION));
+                }
 
-                    Set<org.openrewrite.maven.tree.MavenRepository> allRepositories = new LinkedHashSet<>();
-                    Set<org.openrewrite.maven.tree.MavenRepository> allBuildscriptRepositories = new LinkedHashSet<>();
-                    boolean freestandingScriptFound = false;
-                    Map<String, GradleProject> gradleProjects = new HashMap<>();
-                    for (int i = 0; i < sourceFiles.size(); i++) {
-                        SourceFile sourceFile = sourceFiles.get(i);
-                        if (sourceFile.getSourcePath().endsWith("settings.gradle") || sourceFile.getSourcePath().endsWith("settings.gradle.kts")) {
-                            OpenRewriteModel model = OpenRewriteModelBuilder.forProjectDirectory(tempDirectory.resolve(sourceFile.getSourcePath()).getParent().toFile(), null, initScriptContents);
-                            GradleSettings gradleSettings = model.getGradleSettings();
-                            if(gradleSettings != null) {
-                                sourceFiles.set(i, sourceFile.withMarkers(sourceFile.getMarkers().setByType(gradleSettings)));
-                            }
-                        } else if (sourceFile.getSourcePath().endsWith("build.gradle") || sourceFile.getSourcePath().endsWith("build.gradle.kts")) {
-                            OpenRewriteModel model = OpenRewriteModelBuilder.forProjectDirectory(projectDir.toFile(), tempDirectory.resolve(sourceFile.getSourcePath()).toFile(), initScriptContents);
-                            GradleProject gradleProject = model.getGradleProject();
-                            allRepositories.addAll(gradleProject.getMavenRepositories());
-                            allBuildscriptRepositories.addAll(gradleProject.getBuildscript().getMavenRepositories());
-                            sourceFiles.set(i, sourceFile.withMarkers(sourceFile.getMarkers().setByType(gradleProject)));
-                            gradleProjects.put(getDirectory(sourceFile), model.getGradleProject());
-                        } else if (sourceFile.getSourcePath().toString().endsWith(".gradle") || sourceFile.getSourcePath().toString().endsWith(".gradle.kts")) {
-                            freestandingScriptFound = true;
+                Set<org.openrewrite.maven.tree.MavenRepository> allRepositories = new LinkedHashSet<>();
+                Set<org.openrewrite.maven.tree.MavenRepository> allBuildscriptRepositories = new LinkedHashSet<>();
+                boolean freestandingScriptFound = false;
+                Map<String, GradleProject> gradleProjects = new HashMap<>();
+                // Configure the build once for all of its projects rather than once per settings and build file
+                OpenRewriteBuildModel buildModel = null;
+                for (int i = 0; i < sourceFiles.size(); i++) {
+                    SourceFile sourceFile = sourceFiles.get(i);
+                    boolean settingsFile = sourceFile.getSourcePath().endsWith("settings.gradle") || sourceFile.getSourcePath().endsWith("settings.gradle.kts");
+                    boolean buildFile = sourceFile.getSourcePath().endsWith("build.gradle") || sourceFile.getSourcePath().endsWith("build.gradle.kts");
+                    if ((settingsFile || buildFile) && buildModel == null) {
+                        buildModel = OpenRewriteModelBuilder.forBuild(projectDir.toFile(), options);
+                    }
+                    if (settingsFile) {
+                        File settingsDir = tempDirectory.resolve(sourceFile.getSourcePath()).getParent().toFile();
+                        GradleSettings gradleSettings = settingsDir.equals(projectDir.toFile()) ?
+                                requireNonNull(buildModel).getGradleSettings() :
+                                OpenRewriteModelBuilder.forProjectDirectory(settingsDir, null, options).getGradleSettings();
+                        if(gradleSettings != null) {
+                            sourceFiles.set(i, sourceFile.withMarkers(sourceFile.getMarkers().setByType(gradleSettings)));
                         }
+                    } else if (buildFile) {
+                        File buildScript = tempDirectory.resolve(sourceFile.getSourcePath()).toFile();
+                        OpenRewriteModel model = requireNonNull(buildModel).forProjectDirectory(buildScript.getParentFile());
+                        if (model == null) {
+                            // Build scripts which are not part of the build, e.g. in a directory that settings does not include
+                            model = OpenRewriteModelBuilder.forProjectDirectory(projectDir.toFile(), buildScript, options);
+                        }
+                        GradleProject gradleProject = model.getGradleProject();
+                        allRepositories.addAll(gradleProject.getMavenRepositories());
+                        allBuildscriptRepositories.addAll(gradleProject.getBuildscript().getMavenRepositories());
+                        sourceFiles.set(i, sourceFile.withMarkers(sourceFile.getMarkers().setByType(gradleProject)));
+                        gradleProjects.put(getDirectory(sourceFile), model.getGradleProject());
+                    } else if (sourceFile.getSourcePath().toString().endsWith(".gradle") || sourceFile.getSourcePath().toString().endsWith(".gradle.kts")) {
+                        freestandingScriptFound = true;
                     }
-                    for (int i = 0; i < sourceFiles.size(); i++) {
-                        SourceFile sourceFile = sourceFiles.get(i);
-                        if (sourceFile.getSourcePath().endsWith("gradle.lockfile") || sourceFile.getSourcePath().endsWith("buildscript-gradle.lockfile")) {
-                            GradleProject project = gradleProjects.get(getDirectory(sourceFile));
-                            if (project != null) {
-                                sourceFiles.set(i, sourceFile.withMarkers(sourceFile.getMarkers().setByType(project)));
-                            }
+                }
+                for (int i = 0; i < sourceFiles.size(); i++) {
+                    SourceFile sourceFile = sourceFiles.get(i);
+                    if (sourceFile.getSourcePath().endsWith("gradle.lockfile") || sourceFile.getSourcePath().endsWith("buildscript-gradle.lockfile")) {
+                        GradleProject project = gradleProjects.get(getDirectory(sourceFile));
+                        if (project != null) {
+                            sourceFiles.set(i, sourceFile.withMarkers(sourceFile.getMarkers().setByType(project)));
                         }
                     }
-                    if (freestandingScriptFound) {
-                        // Mimic the behavior of the gradle plugin
-                        // Construct a synthetic marker to apply to freestanding Gradle scripts to aid recipes in resolving dependencies
-                        GradleProject freestandingScriptMarker = new GradleProject(
-                                randomId(), "", "", "", "", emptyList(), new ArrayList<>(allRepositories),
-                                emptyList(), emptyMap(), new GradleBuildscript(randomId(), new ArrayList<>(allBuildscriptRepositories), emptyMap()));
-                        for (int i = 0; i < sourceFiles.size(); i++) {
-                            SourceFile sourceFile = sourceFiles.get(i);
-                            if ((sourceFile.getSourcePath().toString().endsWith(".gradle") || sourceFile.getSourcePath().toString().endsWith(".gradle.kts")) &&
-                                    !sourceFile.getMarkers().findFirst(GradleProject.class).isPresent() && !sourceFile.getMarkers().findFirst(GradleSettings.class).isPresent()) {
-                                sourceFiles.set(i, sourceFile.withMarkers(sourceFile.getMarkers().add(freestandingScriptMarker)));
-                            }
+                }
+                if (freestandingScriptFound) {
+                    // Mimic the behavior of the gradle plugin
+                    // Construct a synthetic marker to apply to freestanding Gradle scripts to aid recipes in resolving dependencies
+                    GradleProject freestandingScriptMarker = new GradleProject(
+                            randomId(), "", "", "", "", emptyList(), new ArrayList<>(allRepositories),
+                            emptyList(), emptyMap(), new GradleBuildscript(randomId(), new ArrayList<>(allBuildscriptRepositories), emptyMap()));
+                    for (int i = 0; i < sourceFiles.size(); i++) {
+                        SourceFile sourceFile = sourceFiles.get(i);
+                        if ((sourceFile.getSourcePath().toString().endsWith(".gradle") || sourceFile.getSourcePath().toString().endsWith(".gradle.kts")) &&
+                                !sourceFile.getMarkers().findFirst(GradleProject.class).isPresent() && !sourceFile.getMarkers().findFirst(GradleSettings.class).isPresent()) {
+                            sourceFiles.set(i, sourceFile.withMarkers(sourceFile.getMarkers().add(freestandingScriptMarker)));
                         }
                     }
-                } finally {
-                    deleteDirectory(tempDirectory.toFile());
                 }
-            } catch (IOException e) {
-                throw new TestAbortedException("Failed to load Gradle tooling API", e);
+            } finally {
+                deleteDirectory(tempDirectory.toFile());
             }
-        };
+        } catch (IOException e) {
+            throw new TestAbortedException("Failed to load Gradle tooling API", e);
+        }
+    }
+
+    /**
+     * A fingerprint of everything {@link #extract(List, GradleWrapper, OpenRewriteModelOptions)} writes to the
+     * project directory, plus the init script.
+     */
+    private static String fixtureKey(List<SourceFile> sourceFiles, @Nullable GradleWrapper gradleWrapper, @Nullable String initScriptContents) {
+        ByteArrayOutputStream inputs = new ByteArrayOutputStream();
+        List<SourceFile> sorted = new ArrayList<>(sourceFiles);
+        sorted.sort(Comparator.comparing(SourceFile::getSourcePath));
+        for (SourceFile sourceFile : sorted) {
+            String path = sourceFile.getSourcePath().toString().replace(File.separatorChar, '/');
+            if (path.endsWith(".gradle") || path.endsWith(".gradle.kts") || path.endsWith("gradle.properties") ||
+                path.endsWith(".versions.toml") || path.endsWith("gradle.lockfile")) {
+                writeInput(inputs, path.getBytes(StandardCharsets.UTF_8));
+                writeInput(inputs, sourceFile.printAllAsBytes());
+            }
+        }
+        if (gradleWrapper != null) {
+            writeInput(inputs, gradleWrapper.getPropertiesFormattedUrl().getBytes(StandardCharsets.UTF_8));
+            if (gradleWrapper.getDistributionChecksum() != null) {
+                writeInput(inputs, gradleWrapper.getDistributionChecksum().getHexValue().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        if (initScriptContents != null) {
+            writeInput(inputs, initScriptContents.getBytes(StandardCharsets.UTF_8));
+        }
+        return BuildInputs.fingerprint(inputs.toByteArray());
+    }
+
+    private static void writeInput(ByteArrayOutputStream inputs, byte[] input) {
+        inputs.write(input, 0, input.length);
+        inputs.write(0);
     }
 
     public static UncheckedConsumer<List<SourceFile>> withToolingApi(@Nullable String version, @Nullable String distribution) {
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Fingerprints the files of a Gradle build which can influence the model extracted from it.
+ */
+final class BuildInputs {
+    private static final Set<String> SKIPPED_DIRECTORIES = new HashSet<>(Arrays.asList(
+            "build", ".gradle", ".git", ".idea", "node_modules"));
+
+    private BuildInputs() {
+    }
+
+    /**
+     * @param projectDir The directory the model is extracted for. The fingerprint covers the whole build containing
+     *                   it, since the settings and parent projects influence the configuration of subprojects.
+     * @param extra      Anything else which influences the model, such as the build arguments and init script.
+     */
+    static String fingerprint(File projectDir, @Nullable File buildFile, List<String> extra) throws IOException {
+        Path root = buildRoot(projectDir.toPath().toAbsolutePath().normalize());
+        MessageDigest digest = sha256();
+        update(digest, "projectDir=" + root.relativize(projectDir.toPath().toAbsolutePath().normalize()));
+        if (buildFile != null) {
+            update(digest, "buildFile=" + root.relativize(buildFile.toPath().toAbsolutePath().normalize()));
+        }
+        for (String e : extra) {
+            update(digest, e);
+        }
+        for (Map.Entry<String, Path> input : inputs(root).entrySet()) {
+            update(digest, input.getKey());
+            digest.update(Files.readAllBytes(input.getValue()));
+        }
+        return hex(digest.digest());
+    }
+
+    static String fingerprint(byte[] content) {
+        MessageDigest digest = sha256();
+        digest.update(content);
+        return hex(digest.digest());
+    }
+
+    static byte[] bundledInitScript() throws IOException {
+        try (InputStream is = OpenRewriteModel.class.getResourceAsStream("/init.gradle")) {
+            if (is == null) {
+                throw new IllegalStateException("Expected to find init.gradle on the classpath");
+            }
+            byte[] buffer = new byte[8192];
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Gradle looks for the settings file in the project directory and then in each of its parents.
+     */
+    private static Path buildRoot(Path projectDir) {
+        for (Path dir = projectDir; dir != null; dir = dir.getParent()) {
+            if (Files.exists(dir.resolve("settings.gradle")) || Files.exists(dir.resolve("settings.gradle.kts"))) {
+                return dir;
+            }
+        }
+        return projectDir;
+    }
+
+    /**
+     * Build scripts, properties, version catalogs, lockfiles and wrapper properties anywhere in the build, plus every
+     * file of buildSrc and of nested builds, which typically hold convention plugins. Keyed by path relative to the
+     * root so the fingerprint does not depend on where the build is checked out.
+     */
+    private static SortedMap<String, Path> inputs(Path root) throws IOException {
+        SortedMap<String, Path> inputs = new TreeMap<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            int buildLogicDepth;
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (!dir.equals(root) && SKIPPED_DIRECTORIES.contains(dir.getFileName().toString())) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                if (buildLogicDepth > 0 || isBuildLogic(dir)) {
+                    buildLogicDepth++;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, @Nullable IOException exc) {
+                if (buildLogicDepth > 0) {
+                    buildLogicDepth--;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && (buildLogicDepth > 0 || isBuildInput(file.getFileName().toString()))) {
+                    inputs.put(root.relativize(file).toString().replace(File.separatorChar, '/'), file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            private boolean isBuildLogic(Path dir) {
+                return !dir.equals(root) && ("buildSrc".equals(dir.getFileName().toString()) ||
+                                             Files.exists(dir.resolve("settings.gradle")) ||
+                                             Files.exists(dir.resolve("settings.gradle.kts")));
+            }
+        });
+        return inputs;
+    }
+
+    private static boolean isBuildInput(String fileName) {
+        return fileName.endsWith(".gradle") ||
+               fileName.endsWith(".gradle.kts") ||
+               fileName.endsWith(".versions.toml") ||
+               fileName.endsWith(".lockfile") ||
+               "gradle.properties".equals(fileName) ||
+               "gradle-wrapper.properties".equals(fileName);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        digest.update(s.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The tooling plugin and its dependencies as shipped within this jar, see
+ * {@link OpenRewriteModelOptions#isEmbeddedPlugin()}. They are extracted once per JVM and put on the classpath of a
+ * generated init script, so that the build does not have to resolve the plugin from remote repositories.
+ * The model classes are not part of the embedded classpath, the jar containing this class is used for them instead.
+ */
+final class EmbeddedPlugin {
+    private static final String CLASSPATH = "META-INF/rewrite-gradle-tooling/plugin/";
+
+    /**
+     * The file names of the embedded jars, one per line, written by the build of this jar.
+     */
+    private static final String INDEX = CLASSPATH + "classpath.txt";
+
+    private static @Nullable String initScript;
+    private static List<Path> extracted = new ArrayList<>();
+
+    private EmbeddedPlugin() {
+    }
+
+    /**
+     * Identifies the embedded plugin version for the purpose of caching models extracted with it.
+     */
+    static String fingerprint() throws IOException {
+        return BuildInputs.fingerprint(index());
+    }
+
+    static synchronized String initScript() throws IOException {
+        if (initScript != null && extracted.stream().allMatch(Files::exists)) {
+            return initScript;
+        }
+        byte[] index = index();
+        Path dir = InitScripts.directory().resolve("plugin-" + BuildInputs.fingerprint(index));
+        if (!Files.isDirectory(dir)) {
+            Files.createDirectories(dir);
+            dir.toFile().deleteOnExit();
+        }
+        List<Path> jars = new ArrayList<>();
+        for (String name : new String(index, StandardCharsets.UTF_8).split("\n")) {
+            name = name.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            Path jar = dir.resolve(name);
+            if (!Files.exists(jar)) {
+                Path tmp = Files.createTempFile(dir, name, ".tmp");
+                try {
+                    try (InputStream is = resource(CLASSPATH + name)) {
+                        Files.copy(is, tmp, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    Files.move(tmp, jar, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+                jar.toFile().deleteOnExit();
+            }
+            jars.add(jar);
+        }
+
+        List<Path> classpath = new ArrayList<>(jars);
+        classpath.add(0, modelClasspath());
+        StringBuilder files = new StringBuilder();
+        for (Path entry : classpath) {
+            if (files.length() > 0) {
+                files.append(",\n");
+            }
+            files.append("                '")
+                    .append(entry.toAbsolutePath().toString().replace("\\", "\\\\").replace("'", "\\'"))
+                    .append('\'');
+        }
+        initScript = "initscript {\n" +
+                     "    dependencies {\n" +
+                     "        classpath files(\n" + files + "\n" +
+                     "        )\n" +
+                     "    }\n" +
+                     "}\n" +
+                     "\n" +
+                     "allprojects {\n" +
+                     "    apply plugin: org.openrewrite.gradle.toolingapi.ToolingApiOpenRewriteModelPlugin\n" +
+                     "}\n";
+        extracted = jars;
+        return initScript;
+    }
+
+    /**
+     * The jar or directory this class was loaded from, which holds the model classes the plugin depends on.
+     */
+    private static Path modelClasspath() {
+        CodeSource codeSource = EmbeddedPlugin.class.getProtectionDomain().getCodeSource();
+        if (codeSource == null) {
+            throw new IllegalStateException("Unable to determine where the model classes were loaded from, which the embedded plugin needs");
+        }
+        try {
+            return Paths.get(codeSource.getLocation().toURI());
+        } catch (URISyntaxException | FileSystemNotFoundException | IllegalArgumentException e) {
+            throw new IllegalStateException("The model classes were loaded from " + codeSource.getLocation() +
+                                            ", which can not be put on the classpath of the build", e);
+        }
+    }
+
+    private static byte[] index() throws IOException {
+        try (InputStream is = resource(INDEX)) {
+            byte[] buffer = new byte[8192];
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static InputStream resource(String name) {
+        InputStream is = EmbeddedPlugin.class.getClassLoader().getResourceAsStream(name);
+        if (is == null) {
+            throw new IllegalStateException("Expected to find " + name + " on the classpath, " +
+                                            "this jar appears to have been built without the embedded plugin");
+        }
+        return is;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.gradle.tooling.BuildCancelledException;
+import org.gradle.tooling.CancellationToken;
+import org.gradle.tooling.CancellationTokenSource;
+import org.gradle.tooling.ConfigurableLauncher;
+import org.gradle.tooling.GradleConnector;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The single cancellation token handed to Gradle for an extraction, which is cancelled once the
+ * {@link OpenRewriteModelOptions#getDeadline() deadline} passes or any of the tokens it combines is cancelled.
+ * The Tooling API only accepts one token per operation and tokens offer no way to be notified of cancellation, so
+ * combined tokens are polled.
+ */
+final class ExtractionCancellation implements AutoCloseable {
+    private static final long POLL_MILLIS = 100;
+
+    private static final ScheduledExecutorService watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "openrewrite-tooling-cancellation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final @Nullable Instant deadline;
+    private final @Nullable CancellationToken token;
+    private final @Nullable ScheduledFuture<?> watch;
+    private volatile boolean deadlineExceeded;
+
+    private ExtractionCancellation(OpenRewriteModelOptions options, @Nullable CancellationToken scheduled) {
+        this.deadline = options.getDeadline();
+        List<CancellationToken> tokens = new ArrayList<>(2);
+        if (options.getCancellationToken() != null) {
+            tokens.add(options.getCancellationToken());
+        }
+        if (scheduled != null) {
+            tokens.add(scheduled);
+        }
+        for (CancellationToken t : tokens) {
+            if (t.isCancellationRequested()) {
+                throw new BuildCancelledException("Extraction was cancelled before it started");
+            }
+        }
+        if (deadline != null && !Instant.now().isBefore(deadline)) {
+            throw new BuildCancelledException("The deadline of " + deadline + " passed before extraction started");
+        }
+
+        if (deadline == null && tokens.size() <= 1) {
+            this.token = tokens.isEmpty() ? null : tokens.get(0);
+            this.watch = null;
+        } else {
+            CancellationTokenSource source = GradleConnector.newCancellationTokenSource();
+            this.token = source.token();
+            this.watch = watcher.scheduleWithFixedDelay(() -> {
+                if (source.token().isCancellationRequested()) {
+                    return;
+                }
+                if (deadline != null && !Instant.now().isBefore(deadline)) {
+                    deadlineExceeded = true;
+                    source.cancel();
+                    return;
+                }
+                for (CancellationToken t : tokens) {
+                    if (t.isCancellationRequested()) {
+                        source.cancel();
+                        return;
+                    }
+                }
+            }, POLL_MILLIS, POLL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @param scheduled A token of the {@link ExtractionScheduler} to observe in addition to those of the options.
+     * @throws BuildCancelledException When cancellation was already requested, or the deadline has already passed.
+     */
+    static ExtractionCancellation of(OpenRewriteModelOptions options, @Nullable CancellationToken scheduled) {
+        return new ExtractionCancellation(options, scheduled);
+    }
+
+    void applyTo(ConfigurableLauncher<?> launcher) {
+        if (token != null) {
+            launcher.withCancellationToken(token);
+        }
+    }
+
+    /**
+     * Distinguishes builds cancelled because of the deadline from those cancelled by the caller.
+     */
+    BuildCancelledException failure(BuildCancelledException e) {
+        if (deadlineExceeded) {
+            return new BuildCancelledException("Extraction did not complete by the deadline of " + deadline, e);
+        }
+        return e;
+    }
+
+    @Override
+    public void close() {
+        if (watch != null) {
+            watch.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.gradle.tooling.CancellationToken;
+import org.gradle.tooling.CancellationTokenSource;
+import org.gradle.tooling.GradleConnector;
+import org.jspecify.annotations.Nullable;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Runs extractions asynchronously for {@link OpenRewriteModelBuilder}, limiting how many builds, and so how many busy
+ * Gradle daemons, there are at once both by count and by the heap those daemons are assumed to occupy.
+ * <p>
+ * Extractions run on virtual threads when the JVM supports them, as they spend nearly all of their time waiting for
+ * the daemon. An extraction which exceeds its timeout is cancelled and fails right away, but keeps holding its share of
+ * the limits until Gradle has actually given up on the build, so that cancelled builds do not overcommit the host.
+ */
+final class ExtractionScheduler implements AutoCloseable {
+    private final Extraction extraction;
+    private final Duration timeout;
+    private final Semaphore builds;
+    private final @Nullable Semaphore heap;
+    private final int heapPerBuild;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService timer;
+
+    ExtractionScheduler(OpenRewriteModelOptions options, Extraction extraction) {
+        this.extraction = extraction;
+        this.timeout = options.getExtractionTimeout();
+        this.builds = new Semaphore(Math.max(1, options.getMaxConcurrentBuilds()));
+        if (options.getMaxDaemonHeapMegabytes() > 0) {
+            this.heap = new Semaphore(options.getMaxDaemonHeapMegabytes());
+            // A single build which is assumed to need more than the total is still allowed to run on its own
+            this.heapPerBuild = Math.min(options.getDaemonHeapMegabytes(), options.getMaxDaemonHeapMegabytes());
+        } else {
+            this.heap = null;
+            this.heapPerBuild = 0;
+        }
+        this.executor = newExecutor();
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "openrewrite-tooling-extraction-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    CompletableFuture<OpenRewriteBuildModel> submit(File rootProjectDir) {
+        CompletableFuture<OpenRewriteBuildModel> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                schedule(rootProjectDir, result);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.completeExceptionally(e);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Pulls directories from the stream only as fast as the limits allow builds to start, so that an arbitrarily long
+     * stream of directories is never buffered.
+     */
+    CompletableFuture<Void> submitAll(Stream<File> rootProjectDirs, OpenRewriteBuildListener listener) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        Runnable completeOne = () -> {
+            if (outstanding.decrementAndGet() == 0) {
+                done.complete(null);
+            }
+        };
+        executor.execute(() -> {
+            try {
+                rootProjectDirs.forEach(dir -> {
+                    outstanding.incrementAndGet();
+                    CompletableFuture<OpenRewriteBuildModel> result = new CompletableFuture<>();
+                    result.whenComplete((model, failure) -> {
+                        try {
+                            if (failure == null) {
+                                listener.buildExtracted(dir, model);
+                            } else {
+                                listener.buildFailed(dir, failure instanceof CompletionException && failure.getCause() != null ?
+                                        failure.getCause() : failure);
+                            }
+                        } catch (RuntimeException e) {
+                            done.completeExceptionally(e);
+                        } finally {
+                            completeOne.run();
+                        }
+                    });
+                    try {
+                        schedule(dir, result);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        result.completeExceptionally(e);
+                        throw new CancellationException("Interrupted while waiting to extract " + dir);
+                    }
+                });
+            } catch (RuntimeException e) {
+                done.completeExceptionally(e);
+            } finally {
+                completeOne.run();
+            }
+        });
+        return done;
+    }
+
+    /**
+     * Blocks until the limits allow another build to start and then extracts it on a thread of its own.
+     */
+    private void schedule(File rootProjectDir, CompletableFuture<OpenRewriteBuildModel> result) throws InterruptedException {
+        builds.acquire();
+        if (heap != null) {
+            try {
+                heap.acquire(heapPerBuild);
+            } catch (InterruptedException e) {
+                builds.release();
+                throw e;
+            }
+        }
+        try {
+            executor.execute(() -> extract(rootProjectDir, result));
+        } catch (RejectedExecutionException e) {
+            release();
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void extract(File rootProjectDir, CompletableFuture<OpenRewriteBuildModel> result) {
+        CancellationTokenSource cancellation = GradleConnector.newCancellationTokenSource();
+        ScheduledFuture<?> timeoutTask = null;
+        if (!timeout.isZero() && !timeout.isNegative()) {
+            timeoutTask = timer.schedule(() -> {
+                if (result.completeExceptionally(new TimeoutException("Extracting the models of " + rootProjectDir +
+                                                                      " did not complete within " + timeout))) {
+                    cancellation.cancel();
+                }
+            }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        try {
+            result.complete(extraction.extract(rootProjectDir, cancellation.token()));
+        } catch (Throwable t) {
+            result.completeExceptionally(t);
+        } finally {
+            if (timeoutTask != null) {
+                timeoutTask.cancel(false);
+            }
+            release();
+        }
+    }
+
+    private void release() {
+        if (heap != null) {
+            heap.release(heapPerBuild);
+        }
+        builds.release();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        timer.shutdownNow();
+    }
+
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "openrewrite-tooling-extraction");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    interface Extraction {
+        OpenRewriteBuildModel extract(File rootProjectDir, CancellationToken cancellationToken) throws Exception;
+    }
+}
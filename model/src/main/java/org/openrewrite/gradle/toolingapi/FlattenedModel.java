@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Value;
+import org.openrewrite.gradle.marker.GradleDependencyConfiguration;
+import org.openrewrite.gradle.marker.GradleProject;
+import org.openrewrite.maven.tree.ResolvedDependency;
+
+import java.util.*;
+
+/**
+ * Layout of the documents of model formats from version 3 onwards, which parse without recursing once per level of
+ * the dependency graph.
+ * <p>
+ * Resolved dependencies carry identity information, so each is written out in full only the first time it occurs.
+ * Writing every resolved dependency of the document up front, each after all of its own dependencies, means that by
+ * the time a dependency is written its dependencies have all been written already and are referred to by id. Nested
+ * dependency lists are then never more than one level deep, however deep the graph.
+ */
+@Value
+@JsonPropertyOrder({"dependencies", "value"})
+class FlattenedModel<T> {
+    List<ResolvedDependency> dependencies;
+    T value;
+
+    @JsonCreator
+    FlattenedModel(@JsonProperty("dependencies") List<ResolvedDependency> dependencies, @JsonProperty("value") T value) {
+        this.dependencies = dependencies;
+        this.value = value;
+    }
+
+    static <T> FlattenedModel<T> of(T value) {
+        List<GradleDependencyConfiguration> configurations = new ArrayList<>();
+        if (value instanceof GradleProject) {
+            configurations.addAll(((GradleProject) value).getConfigurations());
+            configurations.addAll(((GradleProject) value).getBuildscript().getConfigurations());
+        } else if (value instanceof GradleDependencyConfiguration) {
+            configurations.add((GradleDependencyConfiguration) value);
+        }
+
+        List<ResolvedDependency> dependencies = new ArrayList<>();
+        Set<ResolvedDependency> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Visit> stack = new ArrayDeque<>();
+        for (GradleDependencyConfiguration configuration : configurations) {
+            for (ResolvedDependency root : configuration.getDirectResolved()) {
+                if (visited.add(root)) {
+                    stack.push(new Visit(root));
+                }
+                while (!stack.isEmpty()) {
+                    Visit visit = stack.peek();
+                    if (visit.children.hasNext()) {
+                        ResolvedDependency child = visit.children.next();
+                        // A dependency which is already on the stack is part of a cycle, and is written after this one
+                        if (visited.add(child)) {
+                            stack.push(new Visit(child));
+                        }
+                    } else {
+                        stack.pop();
+                        dependencies.add(visit.dependency);
+                    }
+                }
+            }
+        }
+        return new FlattenedModel<>(dependencies, value);
+    }
+
+    private static class Visit {
+        final ResolvedDependency dependency;
+        final Iterator<ResolvedDependency> children;
+
+        Visit(ResolvedDependency dependency) {
+            this.dependency = dependency;
+            this.children = dependency.getDependencies().iterator();
+        }
+    }
+}
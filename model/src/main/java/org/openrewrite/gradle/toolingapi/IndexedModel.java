@@ -0,0 +1,220 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.gradle.marker.GradleDependencyConfiguration;
+import org.openrewrite.gradle.marker.GradleProject;
+
+import java.io.*;
+import java.util.*;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+
+/**
+ * Layout of project models written in an {@link OpenRewriteModelFormat#isIndexed() indexed} format, which lets the
+ * client leave dependency configurations undecoded until they are first accessed. Most recipes only look at a few
+ * configurations of a project, so neither the time to decode the others nor the memory to hold them is spent.
+ * <p>
+ * The project is written without its dependency configurations, followed by an index listing the name, the names of
+ * the configurations it extends from and the encoded length of each configuration, followed by the configurations
+ * themselves, each encoded as a document of its own. The configurations of the buildscript are part of the project.
+ * <p>
+ * As each configuration is encoded separately, coordinates and dependency subtrees which several configurations have
+ * in common are written out once per configuration rather than once per project.
+ */
+final class IndexedModel {
+
+    private IndexedModel() {
+    }
+
+    /**
+     * @param format The format in which to encode the project and each of its configurations.
+     */
+    static byte[] write(OpenRewriteModelFormat format, GradleProject project) throws IOException {
+        List<GradleDependencyConfiguration> configurations = project.getConfigurations();
+        List<byte[]> encoded = new ArrayList<>(configurations.size());
+        for (GradleDependencyConfiguration configuration : configurations) {
+            // Parents are linked up again by name when the configuration is decoded
+            List<GradleDependencyConfiguration> extendsFrom = configuration.getExtendsFrom();
+            configuration.unsafeSetExtendsFrom(emptyList());
+            try {
+                encoded.add(format.write(configuration));
+            } finally {
+                configuration.unsafeSetExtendsFrom(extendsFrom);
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeBytes(out, format.write(project.withNameToConfiguration(emptyMap())));
+            out.writeInt(configurations.size());
+            for (int i = 0; i < configurations.size(); i++) {
+                GradleDependencyConfiguration configuration = configurations.get(i);
+                out.writeUTF(configuration.getName());
+                out.writeInt(configuration.getExtendsFrom().size());
+                for (GradleDependencyConfiguration parent : configuration.getExtendsFrom()) {
+                    out.writeUTF(parent.getName());
+                }
+                out.writeInt(encoded.get(i).length);
+            }
+            for (byte[] configuration : encoded) {
+                out.write(configuration);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static GradleProject read(OpenRewriteModelFormat format, byte[] bytes, Map<String, String> strings) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        int projectLength = in.readInt();
+        GradleProject project = format.read(bytes, Integer.BYTES, projectLength, GradleProject.class, strings);
+        in.skipBytes(projectLength);
+
+        int count = in.readInt();
+        Map<String, IndexEntry> index = new LinkedHashMap<>(count * 2);
+        List<IndexEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            int extendsFromCount = in.readInt();
+            List<String> extendsFrom = new ArrayList<>(extendsFromCount);
+            for (int j = 0; j < extendsFromCount; j++) {
+                extendsFrom.add(in.readUTF());
+            }
+            IndexEntry entry = new IndexEntry(extendsFrom, in.readInt());
+            index.put(name, entry);
+            entries.add(entry);
+        }
+        int offset = bytes.length - in.available();
+        for (IndexEntry entry : entries) {
+            entry.offset = offset;
+            offset += entry.length;
+        }
+        if (offset != bytes.length) {
+            throw new IOException("The index of the model of " + project.getPath() + " does not match its size");
+        }
+        return project.withNameToConfiguration(new LazyConfigurations(format, bytes, index, strings));
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static class IndexEntry {
+        final List<String> extendsFrom;
+        final int length;
+        int offset;
+
+        IndexEntry(List<String> extendsFrom, int length) {
+            this.extendsFrom = extendsFrom;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Decodes each configuration the first time it is looked up. Iterating over the map decodes all of them.
+     * Serializes as an ordinary map holding every configuration.
+     */
+    private static class LazyConfigurations extends AbstractMap<String, GradleDependencyConfiguration> implements Serializable {
+        private final transient OpenRewriteModelFormat format;
+        private final transient byte[] bytes;
+        private final transient Map<String, IndexEntry> index;
+        private final transient Map<String, String> strings;
+        private final transient Map<String, GradleDependencyConfiguration> decoded = new HashMap<>();
+
+        LazyConfigurations(OpenRewriteModelFormat format, byte[] bytes, Map<String, IndexEntry> index, Map<String, String> strings) {
+            this.format = format;
+            this.bytes = bytes;
+            this.index = index;
+            this.strings = strings;
+        }
+
+        @Override
+        public synchronized @Nullable GradleDependencyConfiguration get(Object name) {
+            GradleDependencyConfiguration configuration = decoded.get(name);
+            if (configuration != null) {
+                return configuration;
+            }
+            IndexEntry entry = index.get(name);
+            if (entry == null) {
+                return null;
+            }
+            try {
+                configuration = format.read(bytes, entry.offset, entry.length, GradleDependencyConfiguration.class, strings);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            decoded.put((String) name, configuration);
+            List<GradleDependencyConfiguration> extendsFrom = new ArrayList<>(entry.extendsFrom.size());
+            for (String parent : entry.extendsFrom) {
+                GradleDependencyConfiguration parentConfiguration = get(parent);
+                if (parentConfiguration != null) {
+                    extendsFrom.add(parentConfiguration);
+                }
+            }
+            configuration.unsafeSetExtendsFrom(extendsFrom);
+            return configuration;
+        }
+
+        @Override
+        public boolean containsKey(Object name) {
+            return index.containsKey(name);
+        }
+
+        @Override
+        public int size() {
+            return index.size();
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return Collections.unmodifiableSet(index.keySet());
+        }
+
+        @Override
+        public Set<Map.Entry<String, GradleDependencyConfiguration>> entrySet() {
+            return new AbstractSet<Map.Entry<String, GradleDependencyConfiguration>>() {
+                @Override
+                public Iterator<Map.Entry<String, GradleDependencyConfiguration>> iterator() {
+                    Iterator<String> names = index.keySet().iterator();
+                    return new Iterator<Map.Entry<String, GradleDependencyConfiguration>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return names.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<String, GradleDependencyConfiguration> next() {
+                            String name = names.next();
+                            return new SimpleImmutableEntry<>(name, get(name));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return index.size();
+                }
+            };
+        }
+
+        private Object writeReplace() {
+            return new LinkedHashMap<>(this);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Init scripts handed to Gradle with {@code --init-script}, kept in a directory private to this JVM and named after a
+ * fingerprint of their contents. Extractions using the same script share one file, which is never rewritten or
+ * removed while they run, and nothing is written into the project directory of the build being extracted.
+ */
+final class InitScripts {
+    private static final Map<String, Path> scripts = new ConcurrentHashMap<>();
+
+    private static @Nullable Path directory;
+
+    private InitScripts() {
+    }
+
+    /**
+     * @param initScript Init script contents, or null for the one bundled within this jar.
+     */
+    static Path path(@Nullable String initScript) throws IOException {
+        byte[] contents = initScript == null ?
+                BuildInputs.bundledInitScript() :
+                initScript.getBytes(StandardCharsets.UTF_8);
+        String fingerprint = BuildInputs.fingerprint(contents);
+        Path script = scripts.get(fingerprint);
+        // Temporary directories may be cleaned up while the JVM is still running
+        if (script != null && Files.exists(script)) {
+            return script;
+        }
+        synchronized (InitScripts.class) {
+            script = directory().resolve(fingerprint + ".gradle");
+            if (!Files.exists(script)) {
+                Path tmp = Files.createTempFile(script.getParent(), fingerprint, ".tmp");
+                try {
+                    Files.write(tmp, contents);
+                    try {
+                        Files.move(tmp, script, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (AtomicMoveNotSupportedException e) {
+                        Files.move(tmp, script, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+                script.toFile().deleteOnExit();
+            }
+            scripts.put(fingerprint, script);
+            return script;
+        }
+    }
+
+    /**
+     * The directory private to this JVM, which is also where {@link EmbeddedPlugin} extracts the plugin's classpath.
+     * {@link Files#createTempDirectory(String, java.nio.file.attribute.FileAttribute[])} only grants the current user
+     * access to the directory on POSIX file systems.
+     */
+    static synchronized Path directory() throws IOException {
+        if (directory == null || !Files.isDirectory(directory)) {
+            directory = Files.createTempDirectory("openrewrite-tooling");
+            directory.toFile().deleteOnExit();
+        }
+        return directory;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.ObjectIdGenerators;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.openrewrite.maven.tree.Dependency;
+import org.openrewrite.maven.tree.GroupArtifact;
+import org.openrewrite.maven.tree.GroupArtifactVersion;
+import org.openrewrite.maven.tree.ResolvedGroupArtifactVersion;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Dictionary encoding used by model formats from version 2 onwards.
+ * <p>
+ * The plugin interns coordinates and requested dependencies, so the same instance shows up in every configuration
+ * which contains it. Identity information lets each instance be written out once and referred to by a number after
+ * that. On the client, strings are additionally canonicalized through a table shared by every document of a model.
+ */
+final class ModelInterning extends SimpleModule {
+    static final String STRING_TABLE = "org.openrewrite.gradle.toolingapi.stringTable";
+
+    ModelInterning() {
+        super("OpenRewriteModelInterning");
+        setMixInAnnotation(GroupArtifact.class, GroupArtifactMixin.class);
+        setMixInAnnotation(GroupArtifactVersion.class, GroupArtifactVersionMixin.class);
+        setMixInAnnotation(ResolvedGroupArtifactVersion.class, ResolvedGroupArtifactVersionMixin.class);
+        setMixInAnnotation(Dependency.class, DependencyMixin.class);
+        addDeserializer(String.class, new InterningStringDeserializer());
+    }
+
+    @JsonIdentityInfo(generator = ObjectIdGenerators.IntSequenceGenerator.class, property = "@ga", scope = GroupArtifact.class)
+    abstract static class GroupArtifactMixin {
+    }
+
+    @JsonIdentityInfo(generator = ObjectIdGenerators.IntSequenceGenerator.class, property = "@gav", scope = GroupArtifactVersion.class)
+    abstract static class GroupArtifactVersionMixin {
+    }
+
+    @JsonIdentityInfo(generator = ObjectIdGenerators.IntSequenceGenerator.class, property = "@rgav", scope = ResolvedGroupArtifactVersion.class)
+    abstract static class ResolvedGroupArtifactVersionMixin {
+    }
+
+    @JsonIdentityInfo(generator = ObjectIdGenerators.IntSequenceGenerator.class, property = "@dep", scope = Dependency.class)
+    abstract static class DependencyMixin {
+    }
+
+    private static class InterningStringDeserializer extends StdScalarDeserializer<String> {
+        InterningStringDeserializer() {
+            super(String.class);
+        }
+
+        @Override
+        public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            String value = StringDeserializer.instance.deserialize(p, ctxt);
+            Object table = ctxt.getAttribute(STRING_TABLE);
+            if (value == null || !(table instanceof Map)) {
+                return value;
+            }
+            //noinspection unchecked
+            String canonical = ((Map<String, String>) table).putIfAbsent(value, value);
+            return canonical == null ? value : canonical;
+        }
+    }
+}
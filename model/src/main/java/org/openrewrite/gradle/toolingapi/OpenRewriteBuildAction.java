@@ -0,0 +1,90 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.gradle.tooling.BuildAction;
+import org.gradle.tooling.BuildController;
+import org.gradle.tooling.UnsupportedVersionException;
+import org.gradle.tooling.model.gradle.BasicGradleProject;
+import org.gradle.tooling.model.gradle.GradleBuild;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs inside the Gradle daemon and requests the OpenRewrite model of every project in the build, so that the build
+ * is only configured once no matter how many projects it contains.
+ * The models are copied into {@link OpenRewriteModelImpl} instances so they can be sent back to the client.
+ */
+class OpenRewriteBuildAction implements BuildAction<Map<File, OpenRewriteModelImpl>> {
+    private final boolean parallel;
+
+    OpenRewriteBuildAction(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    @Override
+    public Map<File, OpenRewriteModelImpl> execute(BuildController controller) {
+        GradleBuild build = controller.getBuildModel();
+        List<BasicGradleProject> projects = new ArrayList<>(build.getProjects());
+        Map<File, OpenRewriteModelImpl> models = new LinkedHashMap<>();
+        if (parallel && canQueryInParallel(controller)) {
+            List<ProjectModelAction> actions = new ArrayList<>(projects.size());
+            for (BasicGradleProject project : projects) {
+                actions.add(new ProjectModelAction(project));
+            }
+            // Gradle runs these on its worker pool, holding the lock of each project while its model is built
+            List<OpenRewriteModelImpl> results = controller.run(actions);
+            for (int i = 0; i < projects.size(); i++) {
+                models.put(projects.get(i).getProjectDirectory(), results.get(i));
+            }
+        } else {
+            for (BasicGradleProject project : projects) {
+                models.put(project.getProjectDirectory(), model(controller, project));
+            }
+        }
+        return models;
+    }
+
+    private static boolean canQueryInParallel(BuildController controller) {
+        try {
+            return controller.getCanQueryProjectModelInParallel(OpenRewriteModelProxy.class);
+        } catch (UnsupportedVersionException e) {
+            // Gradle versions older than 6.8
+            return false;
+        }
+    }
+
+    private static OpenRewriteModelImpl model(BuildController controller, BasicGradleProject project) {
+        return OpenRewriteModelImpl.copyOf(controller.getModel(project, OpenRewriteModelProxy.class));
+    }
+
+    private static class ProjectModelAction implements BuildAction<OpenRewriteModelImpl> {
+        private final transient BasicGradleProject project;
+
+        ProjectModelAction(BasicGradleProject project) {
+            this.project = project;
+        }
+
+        @Override
+        public OpenRewriteModelImpl execute(BuildController controller) {
+            return model(controller, project);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import java.io.File;
+import java.util.stream.Stream;
+
+/**
+ * Receives the models of many builds as their extraction completes, see
+ * {@link OpenRewriteModelBuilder#buildModels(Stream, OpenRewriteBuildListener)}. Called from the threads the builds were
+ * extracted on, so implementations must be safe to call concurrently.
+ */
+public interface OpenRewriteBuildListener {
+
+    void buildExtracted(File rootProjectDir, OpenRewriteBuildModel model);
+
+    /**
+     * @param failure Why the build's models could not be extracted, a {@link java.util.concurrent.TimeoutException}
+     *                when the extraction took longer than {@link OpenRewriteModelOptions#getExtractionTimeout()}.
+     */
+    void buildFailed(File rootProjectDir, Throwable failure);
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.gradle.marker.GradleSettings;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The OpenRewrite models of every project in a Gradle build, extracted with a single Tooling API invocation.
+ */
+@Value
+public class OpenRewriteBuildModel {
+
+    /**
+     * Models keyed by project directory, in the order Gradle reports the projects. The root project comes first.
+     */
+    Map<File, OpenRewriteModel> projects;
+
+    public static OpenRewriteBuildModel from(Map<File, ? extends OpenRewriteModelProxy> proxies) {
+        Map<File, OpenRewriteModel> projects = new LinkedHashMap<>();
+        for (Map.Entry<File, ? extends OpenRewriteModelProxy> entry : proxies.entrySet()) {
+            projects.put(normalize(entry.getKey()), OpenRewriteModel.from(entry.getValue()));
+        }
+        return new OpenRewriteBuildModel(Collections.unmodifiableMap(projects));
+    }
+
+    public OpenRewriteModel getRootProject() {
+        return projects.values().iterator().next();
+    }
+
+    public @Nullable GradleSettings getGradleSettings() {
+        for (OpenRewriteModel model : projects.values()) {
+            GradleSettings settings = model.getGradleSettings();
+            if (settings != null) {
+                return settings;
+            }
+        }
+        return null;
+    }
+
+    public @Nullable OpenRewriteModel getProject(String path) {
+        for (OpenRewriteModel model : projects.values()) {
+            if (path.equals(model.getGradleProject().getPath())) {
+                return model;
+            }
+        }
+        return null;
+    }
+
+    public @Nullable OpenRewriteModel forProjectDirectory(File projectDir) {
+        return projects.get(normalize(projectDir));
+    }
+
+    /**
+     * The daemon may report directories with symbolic links resolved, e.g. /private/var rather than /var on macOS.
+     */
+    private static File normalize(File dir) {
+        try {
+            return dir.getCanonicalFile();
+        } catch (IOException e) {
+            return dir.getAbsoluteFile();
+        }
+    }
+}
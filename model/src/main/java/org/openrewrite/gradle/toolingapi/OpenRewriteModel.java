@@ -16,10 +16,11 @@
 package org.openrewrite.gradle.toolingapi;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
 import lombok.Value;
 import org.jspecify.annotations.Nullable;
-import org.openrewrite.RecipeSerializer;
+import org.openrewrite.gradle.marker.ExtractionEvents;
+import org.openrewrite.gradle.marker.ExtractionMetrics;
 import org.openrewrite.gradle.marker.GradleDependencyConfiguration;
 import org.openrewrite.gradle.marker.GradleProject;
 import org.openrewrite.gradle.marker.GradleSettings;
@@ -32,26 +33,90 @@
 import java.util.Map;
 
 @Value
+@AllArgsConstructor
 public class OpenRewriteModel {
 
-    private static final ObjectMapper mapper = new RecipeSerializer().getMapper();
-
     GradleProject gradleProject;
 
 
     org.openrewrite.gradle.marker. @Nullable GradleSettings gradleSettings;
 
+    /**
+     * Where the time went while extracting this model. Only the client side measurements are available when the model
+     * was served from a cache or built by a plugin which predates these metrics.
+     */
+    ExtractionMetrics metrics;
+
+    /**
+     * A model without any extraction metrics.
+     */
+    public OpenRewriteModel(GradleProject gradleProject, @Nullable GradleSettings gradleSettings) {
+        this(gradleProject, gradleSettings, ExtractionMetrics.builder().projectPath(gradleProject.getPath()).build());
+    }
+
     public static OpenRewriteModel from(OpenRewriteModelProxy proxy) {
+        return from(proxy, new HashMap<>());
+    }
+
+    static OpenRewriteModel from(OpenRewriteModelProxy proxy, Map<String, String> strings) {
+        // Committed even when decoding fails, so that failed parses show up in recordings too
+        ExtractionEvents.Event event = ExtractionEvents.begin(ExtractionEvents.Kind.PARSE_MODEL);
+        GradleProject project = null;
+        long resolvedDependencies = 0;
         try {
-            GradleProject project = mapper.readValue(proxy.getGradleProjectBytes(), GradleProject.class);
-            GradleSettings settings = proxy.getGradleSettingsBytes() == null ? null : mapper.readValue(proxy.getGradleSettingsBytes(), GradleSettings.class);
-            deduplicate(project, settings);
-            return new OpenRewriteModel(project, settings);
+            long start = System.nanoTime();
+            OpenRewriteModelFormat format = OpenRewriteModelFormat.of(proxy);
+            project = format.read(proxy.getGradleProjectBytes(), GradleProject.class, strings);
+            GradleSettings settings = proxy.getGradleSettingsBytes() == null ? null : format.read(proxy.getGradleSettingsBytes(), GradleSettings.class, strings);
+            if (format.isIndexed()) {
+                // Deliberately not deduplicated like the other formats, as walking the project's configurations would decode
+                // every one of them. They are linked up by name with the ones they extend from as they are decoded
+                // instead. Only the configurations of the buildscript, which are decoded with the project, need linking.
+                deduplicateConfigurations(project.getBuildscript().getConfigurations(), new HashMap<>());
+            } else {
+                deduplicate(project, settings);
+            }
+            long parseNanos = System.nanoTime() - start;
+            ExtractionMetrics metrics = metrics(proxy, format, project).withParseNanos(parseNanos);
+            resolvedDependencies = metrics.resolvedDependencies();
+            return new OpenRewriteModel(project, settings, metrics);
         } catch (JsonProcessingException e) {
             throw new RuntimeException(e);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
+        } finally {
+            event.commit(project == null ? null : project.getPath(), null, resolvedDependencies);
+        }
+    }
+
+    /**
+     * Replaces the unresolved configurations of a project outline with their resolved counterparts, which were
+     * received separately and so do not yet know which configurations they extend from.
+     */
+    OpenRewriteModel withResolvedConfigurations(Map<String, GradleDependencyConfiguration> resolved,
+                                                ExtractionMetrics resolvedMetrics) {
+        Map<String, GradleDependencyConfiguration> nameToConfiguration = new HashMap<>();
+        for (GradleDependencyConfiguration unresolved : gradleProject.getConfigurations()) {
+            GradleDependencyConfiguration conf = resolved.getOrDefault(unresolved.getName(), unresolved);
+            conf.unsafeSetExtendsFrom(unresolved.getExtendsFrom());
+            nameToConfiguration.put(conf.getName(), conf);
+        }
+        GradleProject project = gradleProject.withNameToConfiguration(nameToConfiguration);
+        deduplicate(project, gradleSettings);
+        return new OpenRewriteModel(project, gradleSettings, metrics.plus(resolvedMetrics));
+    }
+
+    static ExtractionMetrics metrics(OpenRewriteModelProxy proxy, OpenRewriteModelFormat format,
+                                     @Nullable GradleProject project) throws IOException {
+        byte[] metricsBytes = OpenRewriteModelImpl.metricsBytes(proxy);
+        if (metricsBytes != null) {
+            return format.read(metricsBytes, ExtractionMetrics.class);
         }
+        byte[] settingsBytes = proxy.getGradleSettingsBytes();
+        return ExtractionMetrics.builder()
+                .projectPath(project == null ? null : project.getPath())
+                .payloadBytes(proxy.getGradleProjectBytes().length + (settingsBytes == null ? 0 : settingsBytes.length))
+                .build();
     }
 
     /**
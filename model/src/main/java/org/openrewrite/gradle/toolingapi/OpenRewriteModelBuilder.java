@@ -15,6 +15,10 @@
  */
 package org.openrewrite.gradle.toolingapi;
 
+import org.gradle.tooling.BuildActionExecuter;
+import org.gradle.tooling.BuildCancelledException;
+import org.gradle.tooling.CancellationToken;
+import org.gradle.tooling.ConfigurableLauncher;
 import org.gradle.tooling.GradleConnector;
 import org.gradle.tooling.ModelBuilder;
 import org.gradle.tooling.ProjectConnection;
@@ -23,23 +27,118 @@
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+/**
+ * Extracts OpenRewrite models from Gradle builds over the Tooling API.
+ * <p>
+ * The static methods connect to Gradle for each call and disconnect again afterwards. A long-lived instance instead
+ * keeps its connections open between calls, up to {@link OpenRewriteModelOptions#getMaxPooledConnections()} of them,
+ * which saves repeated connector setup and distribution lookup when extracting models for many builds. Instances are
+ * safe to use from multiple threads and must be {@link #close() closed} once no longer needed.
+ */
 @SuppressWarnings("JavadocLinkAsPlainText")
-public class OpenRewriteModelBuilder {
+public class OpenRewriteModelBuilder implements AutoCloseable {
+    private final OpenRewriteModelOptions options;
+    private final ProjectConnectionPool pool;
+    private volatile @Nullable ExtractionScheduler scheduler;
+
+    public OpenRewriteModelBuilder() {
+        this(OpenRewriteModelOptions.DEFAULTS);
+    }
+
+    public OpenRewriteModelBuilder(OpenRewriteModelOptions options) {
+        this.options = options;
+        this.pool = new ProjectConnectionPool(options.getMaxPooledConnections(), options.getConnectionIdleTimeout(),
+                key -> connector(key.getProjectDir(), key.getGradleVersion(), options).connect());
+    }
+
+    /**
+     * Build an OpenRewriteModel for a project directory over a pooled connection, according to the options of this builder.
+     */
+    public OpenRewriteModel projectModel(File projectDir, @Nullable File buildFile) throws IOException {
+        return extractProject(pool, projectDir, buildFile, options);
+    }
+
+    /**
+     * Build an OpenRewriteModel for every project in the build rooted at the given directory over a pooled connection,
+     * according to the options of this builder.
+     */
+    public OpenRewriteBuildModel buildModel(File rootProjectDir) throws IOException {
+        return extractBuild(pool, rootProjectDir, options, null);
+    }
+
+    /**
+     * Stream the models of every project in the build rooted at the given directory over a pooled connection, see
+     * {@link #forBuild(File, OpenRewriteModelOptions, OpenRewriteModelListener)}.
+     */
+    public void buildModel(File rootProjectDir, OpenRewriteModelListener listener) throws IOException {
+        streamBuild(pool, rootProjectDir, options, listener);
+    }
+
+    /**
+     * Build an OpenRewriteModel for every project in the build rooted at the given directory without blocking the
+     * calling thread. The extraction waits for its turn when {@link OpenRewriteModelOptions#getMaxConcurrentBuilds()}
+     * or {@link OpenRewriteModelOptions#getMaxDaemonHeapMegabytes()} would otherwise be exceeded, and is cancelled once
+     * it takes longer than {@link OpenRewriteModelOptions#getExtractionTimeout()}.
+     */
+    public CompletableFuture<OpenRewriteBuildModel> buildModelAsync(File rootProjectDir) {
+        return scheduler().submit(rootProjectDir);
+    }
+
+    /**
+     * Build the models of many builds the same way as {@link #buildModelAsync(File)}, passing each to the listener as
+     * soon as it has been extracted. Directories are taken from the stream only as builds are able to start.
+     *
+     * @return A future which completes once the listener has been called for every directory of the stream.
+     */
+    public CompletableFuture<Void> buildModels(Stream<File> rootProjectDirs, OpenRewriteBuildListener listener) {
+        return scheduler().submitAll(rootProjectDirs, listener);
+    }
+
+    private ExtractionScheduler scheduler() {
+        ExtractionScheduler s = scheduler;
+        if (s == null) {
+            synchronized (this) {
+                s = scheduler;
+                if (s == null) {
+                    s = new ExtractionScheduler(options, (dir, cancellationToken) ->
+                            extractBuild(pool, dir, options, cancellationToken));
+                    scheduler = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Closes the pooled connections. Connections in use by an extraction which is still running are closed once it
+     * completes. Asynchronous extractions which have not yet completed are abandoned.
+     */
+    @Override
+    public void close() {
+        ExtractionScheduler s = scheduler;
+        if (s != null) {
+            s.close();
+        }
+        pool.close();
+    }
 
     /**
      * Build an OpenRewriteModel for a project directory, using the default Gradle init script bundled within this jar.
      * The included init script accesses public artifact repositories (Maven Central, Nexus Snapshots) to be able to
-     * download rewrite dependencies, so public repositories must be accessible for this to work.
+     * download rewrite dependencies, so public repositories must be accessible for this to work. See
+     * {@link OpenRewriteModelOptions#isEmbeddedPlugin()} to use the plugin shipped within this jar instead.
      */
     public static OpenRewriteModel forProjectDirectory(File projectDir, @Nullable File buildFile) throws IOException {
-        return forProjectDirectory(projectDir, buildFile, null);
+        return forProjectDirectory(projectDir, buildFile, OpenRewriteModelOptions.DEFAULTS);
     }
 
     /**
@@ -74,49 +173,228 @@ public static OpenRewriteModel forProjectDirectory(File projectDir, @Nullable Fi
      * </pre>
      */
     public static OpenRewriteModel forProjectDirectory(File projectDir, @Nullable File buildFile, @Nullable String initScript) throws IOException {
-        DefaultGradleConnector connector = (DefaultGradleConnector) GradleConnector.newConnector();
+        return forProjectDirectory(projectDir, buildFile, OpenRewriteModelOptions.builder().initScript(initScript).build());
+    }
+
+    /**
+     * Build an OpenRewriteModel for a project directory according to the given options.
+     */
+    public static OpenRewriteModel forProjectDirectory(File projectDir, @Nullable File buildFile, OpenRewriteModelOptions options) throws IOException {
+        return extractProject(null, projectDir, buildFile, options);
+    }
+
+    private static OpenRewriteModel extractProject(@Nullable ProjectConnectionPool pool, File projectDir,
+                                                   @Nullable File buildFile, OpenRewriteModelOptions options) throws IOException {
+        OpenRewriteModelCache cache = options.getCache();
+        String key = null;
+        if (cache != null) {
+            key = cacheKey(projectDir, buildFile != null && buildFile.exists() ? buildFile : null, options, "project");
+            Map<String, OpenRewriteModelImpl> cached = cache.get(key);
+            if (cached != null && cached.containsKey("")) {
+                return OpenRewriteModel.from(cached.get(""));
+            }
+        }
+
+        List<String> arguments = options.arguments();
+        if (buildFile != null && buildFile.exists()) {
+            arguments.add("-b");
+            arguments.add(buildFile.getAbsolutePath());
+        }
+        OpenRewriteModelImpl model = withConnection(pool, projectDir, options, connection -> {
+            ModelBuilder<OpenRewriteModelProxy> customModelBuilder = connection.model(OpenRewriteModelProxy.class);
+            return run(customModelBuilder, options, null, arguments, () -> OpenRewriteModelImpl.copyOf(customModelBuilder.get()));
+        });
+        if (cache != null) {
+            cache.put(key, Collections.singletonMap("", model));
+        }
+        return OpenRewriteModel.from(model);
+    }
+
+    /**
+     * Build an OpenRewriteModel for every project in the build rooted at the given directory, using the default Gradle
+     * init script bundled within this jar.
+     * The build is configured once and all project models are retrieved over a single connection, which is
+     * considerably faster than calling {@link #forProjectDirectory(File, File)} for each project of a multi-project build.
+     */
+    public static OpenRewriteBuildModel forBuild(File rootProjectDir) throws IOException {
+        return forBuild(rootProjectDir, OpenRewriteModelOptions.DEFAULTS);
+    }
+
+    /**
+     * Build an OpenRewriteModel for every project in the build rooted at the given directory, using the init script
+     * contents passed to this function. See {@link #forProjectDirectory(File, File, String)} for an example init script.
+     */
+    public static OpenRewriteBuildModel forBuild(File rootProjectDir, @Nullable String initScript) throws IOException {
+        return forBuild(rootProjectDir, OpenRewriteModelOptions.builder().initScript(initScript).build());
+    }
+
+    /**
+     * Build an OpenRewriteModel for every project in the build rooted at the given directory according to the given
+     * options. With {@link OpenRewriteModelOptions#isParallel()} the project models are built concurrently.
+     */
+    public static OpenRewriteBuildModel forBuild(File rootProjectDir, OpenRewriteModelOptions options) throws IOException {
+        return extractBuild(null, rootProjectDir, options, null);
+    }
+
+    /**
+     * Stream the models of every project in the build rooted at the given directory to the listener, one dependency
+     * configuration at a time as soon as it has been resolved. Unlike {@link #forBuild(File, OpenRewriteModelOptions)},
+     * neither the serialized nor the parsed models of the whole build are held in memory at once.
+     * <p>
+     * Streaming requires Gradle 8.6 or newer. With older versions the listener is only called once the whole build
+     * has been extracted. The {@link OpenRewriteModelOptions#getCache() cache} and
+     * {@link OpenRewriteModelOptions#isParallel() parallel} options do not apply to streamed extraction.
+     */
+    public static void forBuild(File rootProjectDir, OpenRewriteModelOptions options, OpenRewriteModelListener listener) throws IOException {
+        streamBuild(null, rootProjectDir, options, listener);
+    }
+
+    private static void streamBuild(@Nullable ProjectConnectionPool pool, File rootProjectDir,
+                                    OpenRewriteModelOptions options, OpenRewriteModelListener listener) throws IOException {
+        List<String> arguments = options.arguments();
+        Map<File, OpenRewriteModelImpl> models = withConnection(pool, rootProjectDir, options, connection -> {
+            BuildActionExecuter<Map<File, OpenRewriteModelImpl>> action = connection.action(new OpenRewriteStreamingBuildAction());
+            action.setStreamedValueListener(new StreamedModelAssembler(listener));
+            return run(action, options, null, arguments, action::run);
+        });
+        // Only populated when the build was unable to stream its models
+        StreamedModelAssembler.replay(models, listener);
+    }
+
+    private static OpenRewriteBuildModel extractBuild(@Nullable ProjectConnectionPool pool, File rootProjectDir,
+                                                      OpenRewriteModelOptions options,
+                                                      @Nullable CancellationToken cancellationToken) throws IOException {
+        OpenRewriteModelCache cache = options.getCache();
+        Path root = rootProjectDir.getCanonicalFile().toPath();
+        String key = null;
+        if (cache != null) {
+            key = cacheKey(rootProjectDir, null, options, "build");
+            Map<String, OpenRewriteModelImpl> cached = cache.get(key);
+            if (cached != null) {
+                Map<File, OpenRewriteModelImpl> models = new LinkedHashMap<>();
+                for (Map.Entry<String, OpenRewriteModelImpl> entry : cached.entrySet()) {
+                    models.put(root.resolve(entry.getKey()).normalize().toFile(), entry.getValue());
+                }
+                return OpenRewriteBuildModel.from(models);
+            }
+        }
+
+        List<String> arguments = options.arguments();
+        Map<File, OpenRewriteModelImpl> models = withConnection(pool, rootProjectDir, options, connection -> {
+            BuildActionExecuter<Map<File, OpenRewriteModelImpl>> action = connection.action(new OpenRewriteBuildAction(options.isParallel()));
+            return run(action, options, cancellationToken, arguments, action::run);
+        });
+        if (cache != null) {
+            // Keyed relative to the root, so that another checkout of the same build can be served from the entry
+            Map<String, OpenRewriteModelImpl> relative = new LinkedHashMap<>();
+            for (Map.Entry<File, OpenRewriteModelImpl> entry : models.entrySet()) {
+                relative.put(root.relativize(entry.getKey().getCanonicalFile().toPath()).toString()
+                        .replace(File.separatorChar, '/'), entry.getValue());
+            }
+            cache.put(key, relative);
+        }
+        return OpenRewriteBuildModel.from(models);
+    }
+
+    /**
+     * Everything besides the build files which influences the extracted model: how it is extracted, the Gradle
+     * version, the init script which applies the plugin, and the version of this client.
+     */
+    private static String cacheKey(File projectDir, @Nullable File buildFile, OpenRewriteModelOptions options,
+                                   String kind) throws IOException {
+        List<String> extra = new ArrayList<>();
+        extra.add("kind=" + kind);
+        extra.addAll(options.arguments());
+        extra.add("gradle=" + gradleVersion(projectDir));
+        if (options.getInitScript() != null) {
+            extra.add("initScript=" + BuildInputs.fingerprint(options.getInitScript().getBytes(StandardCharsets.UTF_8)));
+        } else if (options.isEmbeddedPlugin()) {
+            // The generated init script refers to where this JVM extracted the plugin, which differs between runs
+            extra.add("embeddedPlugin=" + EmbeddedPlugin.fingerprint());
+        } else {
+            extra.add("initScript=" + BuildInputs.fingerprint(BuildInputs.bundledInitScript()));
+        }
+        extra.add("client=" + OpenRewriteModelBuilder.class.getPackage().getImplementationVersion());
+        return BuildInputs.fingerprint(projectDir, buildFile, extra);
+    }
+
+    /**
+     * @return The Gradle version to connect with, or null to use the version of the build's wrapper.
+     */
+    private static @Nullable String gradleVersion(File projectDir) {
         if (System.getProperty("org.openrewrite.test.gradleVersion") != null) {
-            connector.useGradleVersion(System.getProperty("org.openrewrite.test.gradleVersion"));
+            return System.getProperty("org.openrewrite.test.gradleVersion");
         } else if (Files.exists(projectDir.toPath().resolve("gradle/wrapper/gradle-wrapper.properties"))) {
+            return null;
+        }
+        return "8.12";
+    }
+
+    private static <T> T withConnection(@Nullable ProjectConnectionPool pool, File projectDir, OpenRewriteModelOptions options,
+                                        ProjectConnectionPool.ConnectionFunction<T> fn) throws IOException {
+        String gradleVersion = gradleVersion(projectDir);
+        if (pool != null) {
+            return pool.withConnection(new ProjectConnectionPool.Key(projectDir.getCanonicalFile(), gradleVersion), fn);
+        }
+        try (ProjectConnection connection = connector(projectDir, gradleVersion, options).connect()) {
+            return fn.apply(connection);
+        }
+    }
+
+    private static DefaultGradleConnector connector(File projectDir, @Nullable String gradleVersion, OpenRewriteModelOptions options) {
+        DefaultGradleConnector connector = (DefaultGradleConnector) GradleConnector.newConnector();
+        if (gradleVersion == null) {
             connector.useBuildDistribution();
         } else {
-            connector.useGradleVersion("8.12");
+            connector.useGradleVersion(gradleVersion);
+        }
+        if (options.getGradleUserHome() != null) {
+            connector.useGradleUserHomeDir(options.getGradleUserHome());
+        }
+        if (options.isNoDaemon()) {
+            // The Tooling API always runs builds in a daemon, so the nearest equivalent of --no-daemon is a daemon
+            // which stops as soon as the build is over
+            connector.daemonMaxIdleTime(1, TimeUnit.SECONDS);
         }
         connector
                 // Uncomment to hit breakpoints inside OpenRewriteModelBuilder in unit tests
                 // Leaving commented out because the exact consequences of this internal API are unclear
                 // .embedded(true)
                 .forProjectDirectory(projectDir);
-        List<String> arguments = new ArrayList<>();
-        if (buildFile != null && buildFile.exists()) {
-            arguments.add("-b");
-            arguments.add(buildFile.getAbsolutePath());
+        return connector;
+    }
+
+    /**
+     * Runs the operation with the build arguments, daemon JVM arguments, environment, init script and cancellation of
+     * the options. The init script is kept outside the project directory, so that concurrent extractions of the same
+     * build do not interfere with one another, see {@link InitScripts}.
+     *
+     * @param scheduled A token of the {@link ExtractionScheduler} to observe in addition to the options' own.
+     */
+    private static <T> T run(ConfigurableLauncher<?> operation, OpenRewriteModelOptions options, @Nullable CancellationToken scheduled,
+                             List<String> arguments, Supplier<T> run) throws IOException {
+        String initScript = options.getInitScript();
+        if (initScript == null && options.isEmbeddedPlugin()) {
+            initScript = EmbeddedPlugin.initScript();
         }
         arguments.add("--init-script");
-        Path init = projectDir.toPath().resolve("openrewrite-tooling.gradle").toAbsolutePath();
-        arguments.add(init.toString());
-        try (ProjectConnection connection = connector.connect()) {
-            ModelBuilder<OpenRewriteModelProxy> customModelBuilder = connection.model(OpenRewriteModelProxy.class);
+        arguments.add(InitScripts.path(initScript).toAbsolutePath().toString());
+        operation.withArguments(arguments);
+        List<String> jvmArguments = options.daemonJvmArguments();
+        if (!jvmArguments.isEmpty()) {
+            operation.setJvmArguments(jvmArguments);
+        }
+        if (options.getReadOnlyDependencyCache() != null) {
+            Map<String, String> environment = new HashMap<>(System.getenv());
+            environment.put("GRADLE_RO_DEP_CACHE", options.getReadOnlyDependencyCache().getAbsolutePath());
+            operation.setEnvironmentVariables(environment);
+        }
+        try (ExtractionCancellation cancellation = ExtractionCancellation.of(options, scheduled)) {
+            cancellation.applyTo(operation);
             try {
-                if (initScript == null) {
-                    try (InputStream is = OpenRewriteModel.class.getResourceAsStream("/init.gradle")) {
-                        if (is == null) {
-                            throw new IllegalStateException("Expected to find init.gradle on the classpath");
-                        }
-                        Files.copy(is, init);
-                    }
-                } else {
-                    Files.write(init, initScript.getBytes());
-                }
-                customModelBuilder.withArguments(arguments);
-                return OpenRewriteModel.from(customModelBuilder.get());
-            } finally {
-                try {
-                    Files.delete(init);
-                } catch (IOException e) {
-                    //noinspection ThrowFromFinallyBlock
-                    throw new UncheckedIOException(e);
-                }
+                return run.get();
+            } catch (BuildCancelledException e) {
+                throw cancellation.failure(e);
             }
         }
     }
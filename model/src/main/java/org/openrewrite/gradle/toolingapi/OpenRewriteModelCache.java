@@ -0,0 +1,215 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import lombok.Builder;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * A directory of serialized models keyed by a fingerprint of the build inputs they were extracted from, so that an
+ * unchanged build can be served without starting a Gradle daemon.
+ * <p>
+ * Entries are evicted least recently used first once either {@link #getMaxEntries()} or {@link #getMaxBytes()} is
+ * exceeded. Since a fingerprint only covers the files of the build, a build with dynamic or changing dependency
+ * versions keeps returning what those versions resolved to when the entry was written. Set {@link #getMaxAge()} to
+ * bound how stale such a result may become.
+ * <p>
+ * Several processes may share the same directory. Entries are written to a temporary file and moved into place, so a
+ * reader never observes a partially written entry.
+ */
+@Value
+@Builder
+public class OpenRewriteModelCache {
+    private static final int MAGIC = 0x4f524d43;
+    private static final int ENTRY_VERSION = 1;
+    private static final String ENTRY_SUFFIX = ".model";
+
+    File directory;
+
+    @Builder.Default
+    int maxEntries = 1_000;
+
+    @Builder.Default
+    long maxBytes = 1024L * 1024 * 1024;
+
+    /**
+     * Entries written longer ago than this are treated as missing. Null to keep entries until they are evicted.
+     */
+    @Nullable
+    Duration maxAge;
+
+    public static OpenRewriteModelCache in(File directory) {
+        return builder().directory(directory).build();
+    }
+
+    /**
+     * @return The models of an entry keyed by project directory relative to the build root, or null on a miss.
+     */
+    @Nullable
+    Map<String, OpenRewriteModelImpl> get(String key) {
+        Path entry = entry(key);
+        try {
+            FileTime written = Files.getLastModifiedTime(entry);
+            if (maxAge != null && written.toMillis() + maxAge.toMillis() < System.currentTimeMillis()) {
+                Files.deleteIfExists(entry);
+                return null;
+            }
+            Map<String, OpenRewriteModelImpl> models;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+                models = read(in);
+            }
+            // The modification time doubles as the access time for the purpose of eviction
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return models;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            // A corrupt or concurrently evicted entry is no worse than a miss
+            return null;
+        }
+    }
+
+    void put(String key, Map<String, ? extends OpenRewriteModelProxy> models) {
+        try {
+            Files.createDirectories(directory.toPath());
+            Path tmp = Files.createTempFile(directory.toPath(), key, ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    write(out, models);
+                }
+                try {
+                    Files.move(tmp, entry(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmp, entry(key), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            evict();
+        } catch (IOException e) {
+            // Failing to cache a model must not fail the extraction itself
+        }
+    }
+
+    public void clear() throws IOException {
+        for (Path entry : entries()) {
+            Files.deleteIfExists(entry);
+        }
+    }
+
+    private Path entry(String key) {
+        return directory.toPath().resolve(key + ENTRY_SUFFIX);
+    }
+
+    private void evict() throws IOException {
+        List<Path> entries = entries();
+        Map<Path, FileTime> lastUsed = new HashMap<>();
+        Map<Path, Long> sizes = new HashMap<>();
+        long total = 0;
+        for (Iterator<Path> iterator = entries.iterator(); iterator.hasNext(); ) {
+            Path entry = iterator.next();
+            try {
+                lastUsed.put(entry, Files.getLastModifiedTime(entry));
+                long size = Files.size(entry);
+                sizes.put(entry, size);
+                total += size;
+            } catch (NoSuchFileException e) {
+                iterator.remove();
+            }
+        }
+        if (entries.size() <= maxEntries && total <= maxBytes) {
+            return;
+        }
+        entries.sort(Comparator.comparing(lastUsed::get));
+        int remaining = entries.size();
+        for (Path entry : entries) {
+            if (remaining <= maxEntries && total <= maxBytes) {
+                break;
+            }
+            Files.deleteIfExists(entry);
+            remaining--;
+            total -= sizes.get(entry);
+        }
+    }
+
+    private List<Path> entries() throws IOException {
+        if (!Files.isDirectory(directory.toPath())) {
+            return new ArrayList<>();
+        }
+        List<Path> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory.toPath())) {
+            files.filter(f -> f.getFileName().toString().endsWith(ENTRY_SUFFIX)).forEach(entries::add);
+        }
+        return entries;
+    }
+
+    static void write(DataOutputStream out, Map<String, ? extends OpenRewriteModelProxy> models) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(ENTRY_VERSION);
+        out.writeInt(models.size());
+        for (Map.Entry<String, ? extends OpenRewriteModelProxy> model : models.entrySet()) {
+            out.writeUTF(model.getKey());
+            out.writeUTF(OpenRewriteModelFormat.of(model.getValue()).getId());
+            writeBytes(out, model.getValue().getGradleProjectBytes());
+            writeBytes(out, model.getValue().getGradleSettingsBytes());
+        }
+    }
+
+    static Map<String, OpenRewriteModelImpl> read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != ENTRY_VERSION) {
+            throw new IOException("Not a model cache entry, or one written by an incompatible version");
+        }
+        int count = in.readInt();
+        Map<String, OpenRewriteModelImpl> models = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String projectDir = in.readUTF();
+            String format = in.readUTF();
+            byte[] project = readBytes(in);
+            if (project == null) {
+                throw new IOException("Cache entry is missing the project model of " + projectDir);
+            }
+            models.put(projectDir, new OpenRewriteModelImpl(format, project, readBytes(in)));
+        }
+        return models;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte @Nullable [] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static byte @Nullable [] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
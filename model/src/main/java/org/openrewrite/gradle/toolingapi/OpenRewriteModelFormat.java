@@ -0,0 +1,288 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.gradle.tooling.model.UnsupportedMethodException;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.RecipeSerializer;
+import org.openrewrite.gradle.marker.GradleProject;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The encoding used to transfer the model from the Gradle daemon to the client.
+ * <p>
+ * The client lists the formats it can read, most preferred first, in the {@link #REQUESTED_FORMATS_PROPERTY} project
+ * property. The plugin picks the first one it can write and reports its choice through
+ * {@link OpenRewriteModelProxy#getFormat()}. Plugins which predate format negotiation always write {@link #LEGACY}.
+ * <p>
+ * From version 3 onwards a format can be requested {@link #isIndexed() indexed}, which the plugin then uses to write
+ * project models as described in {@link IndexedModel}.
+ */
+@Value
+@AllArgsConstructor
+public class OpenRewriteModelFormat {
+    public static final String REQUESTED_FORMATS_PROPERTY = "org.openrewrite.gradle.toolingapi.formats";
+
+    /**
+     * Client side system property which can be set to "json" or "smile" to force a particular encoding.
+     */
+    public static final String ENCODING_SYSTEM_PROPERTY = "org.openrewrite.gradle.toolingapi.encoding";
+
+    /**
+     * <ol>
+     *     <li>The markers as written by the {@link RecipeSerializer} mapper.</li>
+     *     <li>Coordinates and requested dependencies are written once and referenced by id afterwards, see {@link ModelInterning}.</li>
+     *     <li>Resolved dependencies are written ahead of the model, so that it parses without deep recursion, see {@link FlattenedModel}.</li>
+     * </ol>
+     */
+    static final int CURRENT_VERSION = 3;
+
+    private static final String INDEXED_SUFFIX = "-indexed";
+
+    private static final Map<String, ObjectMapper> mappers = new ConcurrentHashMap<>();
+
+    public static final OpenRewriteModelFormat LEGACY = new OpenRewriteModelFormat(Encoding.JSON, 1);
+
+    Encoding encoding;
+
+    int version;
+
+    /**
+     * Project models are written with an index of their dependency configurations, which the client decodes on demand.
+     */
+    boolean indexed;
+
+    OpenRewriteModelFormat(Encoding encoding, int version) {
+        this(encoding, version, false);
+    }
+
+    public String getId() {
+        return encoding.name().toLowerCase(Locale.ROOT) + "-" + version + (indexed ? INDEXED_SUFFIX : "");
+    }
+
+    public byte[] write(Object value) throws IOException {
+        if (indexed && value instanceof GradleProject) {
+            return IndexedModel.write(withIndexed(false), (GradleProject) value);
+        }
+        if (isFlattened()) {
+            return mapper().writeValueAsBytes(FlattenedModel.of(value));
+        }
+        return mapper().writeValueAsBytes(value);
+    }
+
+    public <T> T read(byte[] bytes, Class<T> type) throws IOException {
+        return read(bytes, type, new HashMap<>());
+    }
+
+    /**
+     * @param strings Table used to canonicalize the strings of this document, which may be shared with other documents
+     *                belonging to the same model.
+     */
+    public <T> T read(byte[] bytes, Class<T> type, Map<String, String> strings) throws IOException {
+        if (indexed && type == GradleProject.class) {
+            return type.cast(IndexedModel.read(withIndexed(false), bytes, strings));
+        }
+        return read(bytes, 0, bytes.length, type, strings);
+    }
+
+    <T> T read(byte[] bytes, int offset, int length, Class<T> type, Map<String, String> strings) throws IOException {
+        ObjectMapper mapper = mapper();
+        if (isFlattened()) {
+            FlattenedModel<T> flattened = mapper
+                    .readerFor(mapper.getTypeFactory().constructParametricType(FlattenedModel.class, type))
+                    .withAttribute(ModelInterning.STRING_TABLE, strings)
+                    .readValue(bytes, offset, length);
+            return flattened.getValue();
+        }
+        return mapper.readerFor(type)
+                .withAttribute(ModelInterning.STRING_TABLE, strings)
+                .readValue(bytes, offset, length);
+    }
+
+    private OpenRewriteModelFormat withIndexed(boolean indexed) {
+        return new OpenRewriteModelFormat(encoding, version, indexed);
+    }
+
+    private boolean isFlattened() {
+        return version >= 3;
+    }
+
+    private ObjectMapper mapper() {
+        boolean interned = version >= 2;
+        return mappers.computeIfAbsent(encoding.name() + (interned ? "-interned" : ""), k -> {
+            ObjectMapper m = new RecipeSerializer().getMapper();
+            if (interned) {
+                m.registerModule(new ModelInterning());
+            }
+            return encoding == Encoding.SMILE ? SmileMapper.from(m) : m;
+        });
+    }
+
+    public static @Nullable OpenRewriteModelFormat parse(String id) {
+        id = id.trim();
+        boolean indexed = id.endsWith(INDEXED_SUFFIX);
+        if (indexed) {
+            id = id.substring(0, id.length() - INDEXED_SUFFIX.length());
+        }
+        int dash = id.lastIndexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            Encoding encoding = Encoding.valueOf(id.substring(0, dash).trim().toUpperCase(Locale.ROOT));
+            int version = Integer.parseInt(id.substring(dash + 1).trim());
+            if (version < 1 || version > CURRENT_VERSION || !encoding.isAvailable() || (indexed && version < 3)) {
+                return null;
+            }
+            return new OpenRewriteModelFormat(encoding, version, indexed);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The comma separated list of formats this client can read, most preferred first.
+     */
+    public static String requested() {
+        return requested(false);
+    }
+
+    /**
+     * @param indexed Whether to prefer indexed formats, in which dependency configurations are decoded on demand.
+     */
+    public static String requested(boolean indexed) {
+        List<Encoding> encodings = new ArrayList<>();
+        String forced = System.getProperty(ENCODING_SYSTEM_PROPERTY);
+        if (forced != null) {
+            encodings.add(forcedEncoding(forced));
+        } else {
+            if (Encoding.SMILE.isAvailable()) {
+                encodings.add(Encoding.SMILE);
+            }
+            encodings.add(Encoding.JSON);
+        }
+        StringBuilder requested = new StringBuilder();
+        for (Encoding encoding : encodings) {
+            if (indexed) {
+                if (requested.length() > 0) {
+                    requested.append(',');
+                }
+                requested.append(new OpenRewriteModelFormat(encoding, CURRENT_VERSION, true).getId());
+            }
+            for (int version = CURRENT_VERSION; version >= 1; version--) {
+                if (requested.length() > 0) {
+                    requested.append(',');
+                }
+                requested.append(new OpenRewriteModelFormat(encoding, version).getId());
+            }
+        }
+        return requested.toString();
+    }
+
+    private static Encoding forcedEncoding(String forced) {
+        for (Encoding encoding : Encoding.values()) {
+            if (encoding.name().equalsIgnoreCase(forced.trim())) {
+                if (!encoding.isAvailable()) {
+                    throw new IllegalStateException("The model encoding \"" + forced + "\" set by -D" + ENCODING_SYSTEM_PROPERTY +
+                                                    " requires jackson-dataformat-" + encoding.name().toLowerCase(Locale.ROOT) +
+                                                    " on the classpath");
+                }
+                return encoding;
+            }
+        }
+        StringJoiner accepted = new StringJoiner(", ");
+        for (Encoding encoding : Encoding.values()) {
+            accepted.add(encoding.name().toLowerCase(Locale.ROOT));
+        }
+        throw new IllegalArgumentException("Unknown model encoding \"" + forced + "\" set by -D" + ENCODING_SYSTEM_PROPERTY +
+                                           ", expected one of: " + accepted);
+    }
+
+    /**
+     * Used by the plugin to pick the first of the client's requested formats which it is able to write.
+     */
+    public static OpenRewriteModelFormat negotiate(@Nullable Object requested) {
+        if (requested != null) {
+            for (String id : requested.toString().split(",")) {
+                OpenRewriteModelFormat format = parse(id);
+                if (format != null) {
+                    return format;
+                }
+            }
+        }
+        return LEGACY;
+    }
+
+    /**
+     * The format a model was written in, tolerating plugins that predate format negotiation.
+     */
+    public static OpenRewriteModelFormat of(OpenRewriteModelProxy proxy) {
+        String id;
+        try {
+            id = proxy.getFormat();
+        } catch (UnsupportedMethodException e) {
+            return LEGACY;
+        }
+        OpenRewriteModelFormat format = parse(id);
+        if (format == null) {
+            throw new IllegalStateException("The OpenRewrite tooling plugin responded with model format \"" + id +
+                                            "\" which this version of the client is unable to read");
+        }
+        return format;
+    }
+
+    public enum Encoding {
+        JSON,
+        SMILE;
+
+        boolean isAvailable() {
+            if (this == JSON) {
+                return true;
+            }
+            try {
+                Class.forName("com.fasterxml.jackson.dataformat.smile.SmileFactory", false, OpenRewriteModelFormat.class.getClassLoader());
+                return true;
+            } catch (ClassNotFoundException | LinkageError e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Shares the configuration of the {@link RecipeSerializer} mapper, but reads and writes Smile.
+     * Kept in its own class so that the Smile dataformat only has to be on the classpath when it is used.
+     */
+    private static class SmileMapper extends ObjectMapper {
+        private SmileMapper(ObjectMapper src, SmileFactory factory) {
+            super(src, factory);
+        }
+
+        static ObjectMapper from(ObjectMapper json) {
+            SmileFactory factory = new SmileFactory();
+            // Back-reference repeated short strings such as group ids and versions rather than writing them out again
+            factory.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true);
+            return new SmileMapper(json, factory);
+        }
+    }
+}
@@ -15,14 +15,44 @@
  */
 package org.openrewrite.gradle.toolingapi;
 
+import lombok.AllArgsConstructor;
 import lombok.Value;
+import org.gradle.tooling.model.UnsupportedMethodException;
 import org.jspecify.annotations.Nullable;
 
 import java.io.Serializable;
 
 @Value
-public class OpenRewriteModelImpl implements Serializable {
+@AllArgsConstructor
+public class OpenRewriteModelImpl implements OpenRewriteModelProxy, Serializable {
+    String format;
+
     byte[] gradleProjectBytes;
 
     byte @Nullable [] gradleSettingsBytes;
+
+    byte @Nullable [] metricsBytes;
+
+    public OpenRewriteModelImpl(String format, byte[] gradleProjectBytes, byte @Nullable [] gradleSettingsBytes) {
+        this(format, gradleProjectBytes, gradleSettingsBytes, null);
+    }
+
+    /**
+     * Copies a model retrieved over the Tooling API, which is only usable while its connection remains open.
+     */
+    public static OpenRewriteModelImpl copyOf(OpenRewriteModelProxy proxy) {
+        return new OpenRewriteModelImpl(
+                OpenRewriteModelFormat.of(proxy).getId(),
+                proxy.getGradleProjectBytes(),
+                proxy.getGradleSettingsBytes(),
+                metricsBytes(proxy));
+    }
+
+    static byte @Nullable [] metricsBytes(OpenRewriteModelProxy proxy) {
+        try {
+            return proxy.getMetricsBytes();
+        } catch (UnsupportedMethodException e) {
+            return null;
+        }
+    }
 }
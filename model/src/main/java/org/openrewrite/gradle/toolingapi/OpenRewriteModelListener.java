@@ -0,0 +1,42 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.openrewrite.gradle.marker.GradleDependencyConfiguration;
+import org.openrewrite.gradle.marker.GradleProject;
+
+import java.io.File;
+
+/**
+ * Receives the parts of a build's models as they are extracted, see
+ * {@link OpenRewriteModelBuilder#forBuild(File, OpenRewriteModelOptions, OpenRewriteModelListener)}.
+ */
+public interface OpenRewriteModelListener {
+
+    /**
+     * @param project       The project the configuration belongs to. Its own configurations are not yet resolved.
+     * @param configuration A configuration which has just been resolved. The configurations it extends from are only
+     *                      filled in on the model passed to {@link #projectExtracted(File, OpenRewriteModel)}.
+     */
+    default void configurationResolved(GradleProject project, GradleDependencyConfiguration configuration) {
+    }
+
+    /**
+     * Called once every configuration of the project has been resolved.
+     */
+    default void projectExtracted(File projectDir, OpenRewriteModel model) {
+    }
+}
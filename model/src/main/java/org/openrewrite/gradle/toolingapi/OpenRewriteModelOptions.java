@@ -0,0 +1,254 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+import org.gradle.tooling.CancellationToken;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.gradle.marker.ConfigurationSelection;
+import org.openrewrite.gradle.marker.GradleProjectBuilder;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Options controlling how {@link OpenRewriteModelBuilder} extracts models.
+ */
+@Value
+@Builder(toBuilder = true)
+public class OpenRewriteModelOptions {
+    public static final OpenRewriteModelOptions DEFAULTS = OpenRewriteModelOptions.builder().build();
+
+    /**
+     * Init script contents to use instead of the one bundled within this jar.
+     * See {@link OpenRewriteModelBuilder#forProjectDirectory(java.io.File, java.io.File, String)} for an example.
+     */
+    @Nullable
+    String initScript;
+
+    /**
+     * Put the tooling plugin and its dependencies which are shipped within this jar directly on the classpath of the
+     * init script, rather than resolving them from Maven local, Sonatype snapshots and Maven Central. Extraction then
+     * does no dependency resolution for the plugin itself, so it works offline and without repository round trips.
+     * Does not apply when an {@link #getInitScript() init script} is given.
+     */
+    boolean embeddedPlugin;
+
+    /**
+     * Build the models of the projects of a multi-project build concurrently on Gradle's worker pool.
+     * Requires Gradle 6.8 or newer, older versions build the models one project at a time.
+     * Configurations within one project are always resolved one after another, as Gradle only allows a single thread
+     * at a time to resolve the configurations of a project.
+     */
+    boolean parallel;
+
+    /**
+     * The maximum number of Gradle workers, and so the maximum number of projects whose models are built at once
+     * when {@link #isParallel()} is set. Zero leaves the decision to Gradle, which defaults to the number of processors.
+     */
+    int maxWorkers;
+
+    /**
+     * Only resolve the dependency configurations whose names match one of these patterns, where {@code *} matches any
+     * number of characters. The other configurations are part of the model, listing what they request, but have no
+     * resolved dependencies. Empty to resolve every configuration.
+     */
+    @Singular
+    List<String> includeConfigurations;
+
+    /**
+     * Do not resolve the dependency configurations whose names match one of these patterns, even if they are
+     * {@link #getIncludeConfigurations() included}.
+     */
+    @Singular
+    List<String> excludeConfigurations;
+
+    /**
+     * Skip resolving configurations without any dependencies declared on them or on a configuration they extend from,
+     * such as the many variant configurations of Android and Kotlin multiplatform projects.
+     */
+    boolean declaredConfigurationsOnly;
+
+    /**
+     * The number of levels of each resolved dependency graph to include in the model, where direct dependencies make
+     * up the first level. Dependencies any deeper are left out, which bounds the cost of pathologically deep graphs.
+     * Zero for no limit.
+     */
+    int maxDependencyDepth;
+
+    /**
+     * Decode the dependency configurations of a project only when they are first accessed, rather than all of them up
+     * front. Saves time and memory when only a few configurations of each project are looked at, at the expense of a
+     * larger transfer, as configurations no longer share coordinates and dependency subtrees in the encoded model.
+     * Requires a version of the plugin which supports it, otherwise every configuration is decoded up front.
+     */
+    boolean lazyConfigurations;
+
+    /**
+     * Serve models of builds whose inputs are unchanged since an earlier extraction from this cache rather than
+     * connecting to Gradle. Null to always extract.
+     */
+    @Nullable
+    OpenRewriteModelCache cache;
+
+    /**
+     * Run the build with {@code --offline}, so that dependencies are resolved from the Gradle user home's cache alone.
+     */
+    boolean offline;
+
+    /**
+     * Run the build with {@code --configure-on-demand}. Only the projects needed to build the model of the requested
+     * project are configured, which only makes a difference when extracting a single project of a multi-project build.
+     */
+    boolean configureOnDemand;
+
+    /**
+     * Stop the daemon the build ran in as soon as it is done rather than keeping it for later builds. The Tooling API
+     * always runs builds in a daemon, so this is its nearest equivalent of {@code --no-daemon}.
+     */
+    boolean noDaemon;
+
+    /**
+     * Arguments for the daemon JVM, such as its heap size or garbage collector. They replace
+     * {@code org.gradle.jvmargs} of the build's gradle.properties, and a daemon with different arguments is started
+     * when no running one matches. Empty to let the build decide.
+     */
+    @Singular
+    List<String> jvmArguments;
+
+    /**
+     * The Gradle user home to use instead of the default {@code ~/.gradle}, where distributions, daemons and the
+     * dependency cache are kept.
+     */
+    @Nullable
+    File gradleUserHome;
+
+    /**
+     * A read-only dependency cache shared between Gradle user homes, passed to the build as the
+     * {@code GRADLE_RO_DEP_CACHE} environment variable. It must contain a {@code modules-2} directory copied from a
+     * Gradle user home which used the same Gradle version. Null not to use one.
+     */
+    @Nullable
+    File readOnlyDependencyCache;
+
+    /**
+     * When extraction must be done by. A build still running at this point is cancelled and extraction fails with a
+     * {@link org.gradle.tooling.BuildCancelledException}. Null for no deadline.
+     */
+    @Nullable
+    Instant deadline;
+
+    /**
+     * Cancels extraction once cancellation is requested, failing it with a
+     * {@link org.gradle.tooling.BuildCancelledException}. Obtain one from
+     * {@link org.gradle.tooling.GradleConnector#newCancellationTokenSource()}. The build stops resolving dependency
+     * configurations as soon as it notices. Null for extraction that can only be stopped by the {@link #getDeadline() deadline}.
+     */
+    @Nullable
+    CancellationToken cancellationToken;
+
+    /**
+     * The number of connections a long-lived {@link OpenRewriteModelBuilder} instance keeps open at once. When all of
+     * them are in use, further extractions connect to Gradle without pooling the connection.
+     */
+    @Builder.Default
+    int maxPooledConnections = 8;
+
+    /**
+     * How long a connection pooled by a long-lived {@link OpenRewriteModelBuilder} instance may remain unused before
+     * it is closed. Zero keeps connections open until the builder is closed or room is needed for another one.
+     */
+    @Builder.Default
+    Duration connectionIdleTimeout = Duration.ofMinutes(5);
+
+    /**
+     * The number of builds a long-lived {@link OpenRewriteModelBuilder} instance extracts at once through its
+     * asynchronous methods. Each of them occupies a Gradle daemon of its own while it is being extracted.
+     */
+    @Builder.Default
+    int maxConcurrentBuilds = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * The total heap in megabytes of the daemons which may be busy with asynchronous extractions at once, each of them
+     * taking up {@link #getDaemonHeapMegabytes()}. To keep to this, the daemons are started with a maximum heap of
+     * {@link #getDaemonHeapMegabytes()}, which overrides any {@code -Xmx} of {@link #getJvmArguments()} and, like any
+     * JVM arguments, replaces {@code org.gradle.jvmargs} of the build's gradle.properties. Zero to only limit
+     * {@link #getMaxConcurrentBuilds()} and leave the daemon heap to the build.
+     */
+    int maxDaemonHeapMegabytes;
+
+    /**
+     * The maximum heap in megabytes of each daemon when {@link #getMaxDaemonHeapMegabytes()} is set.
+     * Defaults to the maximum heap Gradle gives its daemons unless a build configures otherwise.
+     */
+    @Builder.Default
+    int daemonHeapMegabytes = 512;
+
+    /**
+     * How long the asynchronous extraction of a single build may take before it is cancelled and fails with a
+     * {@link java.util.concurrent.TimeoutException}. Zero for no limit.
+     */
+    @Builder.Default
+    Duration extractionTimeout = Duration.ZERO;
+
+    /**
+     * @return The JVM arguments for the daemon, with its heap capped when the total daemon heap is limited.
+     */
+    List<String> daemonJvmArguments() {
+        if (maxDaemonHeapMegabytes <= 0) {
+            return jvmArguments;
+        }
+        List<String> arguments = new ArrayList<>(jvmArguments);
+        // The last -Xmx takes precedence
+        arguments.add("-Xmx" + Math.min(daemonHeapMegabytes, maxDaemonHeapMegabytes) + "m");
+        return arguments;
+    }
+
+    List<String> arguments() {
+        List<String> arguments = new ArrayList<>();
+        arguments.add("-P" + OpenRewriteModelFormat.REQUESTED_FORMATS_PROPERTY + "=" + OpenRewriteModelFormat.requested(lazyConfigurations));
+        if (parallel) {
+            arguments.add("--parallel");
+        }
+        if (offline) {
+            arguments.add("--offline");
+        }
+        if (configureOnDemand) {
+            arguments.add("--configure-on-demand");
+        }
+        if (maxWorkers > 0) {
+            arguments.add("--max-workers=" + maxWorkers);
+        }
+        if (!includeConfigurations.isEmpty()) {
+            arguments.add("-P" + ConfigurationSelection.INCLUDE_PROPERTY + "=" + String.join(",", includeConfigurations));
+        }
+        if (!excludeConfigurations.isEmpty()) {
+            arguments.add("-P" + ConfigurationSelection.EXCLUDE_PROPERTY + "=" + String.join(",", excludeConfigurations));
+        }
+        if (declaredConfigurationsOnly) {
+            arguments.add("-P" + ConfigurationSelection.DECLARED_ONLY_PROPERTY + "=true");
+        }
+        if (maxDependencyDepth > 0) {
+            arguments.add("-P" + GradleProjectBuilder.MAX_DEPENDENCY_DEPTH_PROPERTY + "=" + maxDependencyDepth);
+        }
+        return arguments;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Value
+public class OpenRewriteModelOutlineImpl implements OpenRewriteModelOutlineProxy, Serializable {
+    String format;
+
+    byte[] gradleProjectBytes;
+
+    byte @Nullable [] gradleSettingsBytes;
+
+    byte @Nullable [] metricsBytes;
+
+    List<String> configurationNames;
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import java.util.List;
+
+/**
+ * A project model whose dependency configurations are listed but not yet resolved. Each of them can subsequently be
+ * resolved on its own by requesting an {@link OpenRewriteModelProxy} with {@link OpenRewriteModelParameters}.
+ */
+public interface OpenRewriteModelOutlineProxy extends OpenRewriteModelProxy {
+    List<String> getConfigurationNames();
+}
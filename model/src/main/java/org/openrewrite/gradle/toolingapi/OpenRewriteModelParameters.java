@@ -0,0 +1,33 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Parameters of a request for a single part of an {@link OpenRewriteModelProxy}.
+ * Requires Gradle 4.4 or newer, which introduced parameterized tooling models.
+ */
+public interface OpenRewriteModelParameters {
+    /**
+     * @return The name of the one dependency configuration to resolve. The model bytes then contain that
+     * {@link org.openrewrite.gradle.marker.GradleDependencyConfiguration} rather than a whole project.
+     */
+    @Nullable
+    String getConfiguration();
+
+    void setConfiguration(String configuration);
+}
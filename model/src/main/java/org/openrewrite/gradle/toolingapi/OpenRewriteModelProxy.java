@@ -18,8 +18,20 @@
 import org.jspecify.annotations.Nullable;
 
 public interface OpenRewriteModelProxy {
+    /**
+     * @return The id of the {@link OpenRewriteModelFormat} the model bytes are encoded in.
+     */
+    String getFormat();
+
     byte[] getGradleProjectBytes();
 
     byte @Nullable [] getGradleSettingsBytes();
+
+    /**
+     * @return The {@link org.openrewrite.gradle.marker.ExtractionMetrics} of the model, encoded in the same format as
+     * the model itself. Plugins which predate these metrics throw an
+     * {@link org.gradle.tooling.model.UnsupportedMethodException} instead.
+     */
+    byte @Nullable [] getMetricsBytes();
 }
 
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.gradle.tooling.BuildAction;
+import org.gradle.tooling.BuildController;
+import org.gradle.tooling.UnknownModelException;
+import org.gradle.tooling.model.build.BuildEnvironment;
+import org.gradle.tooling.model.gradle.BasicGradleProject;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends the OpenRewrite model of every project in the build to the client one configuration at a time, as soon as each
+ * configuration is resolved, rather than once the whole build has been extracted.
+ * <p>
+ * Streaming requires Gradle 8.6 or newer. With older versions of Gradle, or with a plugin which predates streaming,
+ * this behaves like {@link OpenRewriteBuildAction} and the models are returned once complete.
+ */
+class OpenRewriteStreamingBuildAction implements BuildAction<Map<File, OpenRewriteModelImpl>> {
+
+    @Override
+    public Map<File, OpenRewriteModelImpl> execute(BuildController controller) {
+        if (!canStream(controller)) {
+            return new OpenRewriteBuildAction(false).execute(controller);
+        }
+        for (BasicGradleProject project : controller.getBuildModel().getProjects()) {
+            OpenRewriteModelOutlineProxy outline;
+            try {
+                outline = controller.getModel(project, OpenRewriteModelOutlineProxy.class);
+            } catch (UnknownModelException e) {
+                // Only ever the case for the first project, as every project has the same version of the plugin applied
+                return new OpenRewriteBuildAction(false).execute(controller);
+            }
+            List<String> configurationNames = new ArrayList<>(outline.getConfigurationNames());
+            controller.send(new StreamedModel(project.getProjectDirectory(), null, configurationNames,
+                    OpenRewriteModelImpl.copyOf(outline)));
+            for (String name : configurationNames) {
+                OpenRewriteModelProxy configuration = controller.getModel(project, OpenRewriteModelProxy.class,
+                        OpenRewriteModelParameters.class, parameters -> parameters.setConfiguration(name));
+                controller.send(new StreamedModel(project.getProjectDirectory(), name, Collections.emptyList(),
+                        OpenRewriteModelImpl.copyOf(configuration)));
+            }
+        }
+        return Collections.emptyMap();
+    }
+
+    private static boolean canStream(BuildController controller) {
+        // Parsed by hand as this runs in the daemon, where GradleVersion may be another version than the client's
+        String[] version = controller.getModel(BuildEnvironment.class).getGradle().getGradleVersion().split("[.-]");
+        try {
+            int major = Integer.parseInt(version[0]);
+            int minor = version.length > 1 ? Integer.parseInt(version[1]) : 0;
+            return major > 8 || (major == 8 && minor >= 6);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
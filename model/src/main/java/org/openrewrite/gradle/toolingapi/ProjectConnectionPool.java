@@ -0,0 +1,182 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import lombok.Value;
+import org.gradle.tooling.ProjectConnection;
+import org.jspecify.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Keeps {@link ProjectConnection}s open between extractions, keyed by project directory and Gradle distribution.
+ * <p>
+ * A connection may be used by several extractions at once. It is only closed once it is no longer in use, either
+ * because it sat idle for longer than the idle timeout, because room had to be made for another connection, or
+ * because the pool was closed. When the pool is full of connections that are all in use, an extraction gets a
+ * connection of its own which is closed as soon as it completes.
+ */
+final class ProjectConnectionPool implements AutoCloseable {
+    private final int maxSize;
+    private final Duration idleTimeout;
+    private final Function<Key, ProjectConnection> connect;
+
+    // Guarded by this
+    private final Map<Key, Pooled> connections = new HashMap<>();
+    private boolean closed;
+
+    private final @Nullable ScheduledExecutorService sweeper;
+
+    ProjectConnectionPool(int maxSize, Duration idleTimeout, Function<Key, ProjectConnection> connect) {
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.connect = connect;
+        if (idleTimeout.isZero() || idleTimeout.isNegative()) {
+            this.sweeper = null;
+        } else {
+            ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "openrewrite-tooling-connection-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1, idleTimeout.toMillis() / 2);
+            sweeper.scheduleWithFixedDelay(this::closeIdle, period, period, TimeUnit.MILLISECONDS);
+            this.sweeper = sweeper;
+        }
+    }
+
+    <T> T withConnection(Key key, ConnectionFunction<T> fn) throws IOException {
+        Pooled pooled = acquire(key);
+        if (pooled == null) {
+            try (ProjectConnection connection = connect.apply(key)) {
+                return fn.apply(connection);
+            }
+        }
+        try {
+            return fn.apply(pooled.connection);
+        } finally {
+            release(pooled);
+        }
+    }
+
+    private synchronized @Nullable Pooled acquire(Key key) {
+        if (closed) {
+            throw new IllegalStateException("The connection pool has been closed");
+        }
+        Pooled pooled = connections.get(key);
+        if (pooled == null) {
+            if (connections.size() >= maxSize && !evictLeastRecentlyUsed()) {
+                return null;
+            }
+            pooled = new Pooled(key, connect.apply(key));
+            connections.put(key, pooled);
+        }
+        pooled.inUse++;
+        return pooled;
+    }
+
+    private synchronized void release(Pooled pooled) {
+        pooled.inUse--;
+        pooled.lastUsed = System.nanoTime();
+        if (pooled.inUse == 0 && (closed || connections.get(pooled.key) != pooled)) {
+            pooled.connection.close();
+        }
+    }
+
+    private boolean evictLeastRecentlyUsed() {
+        Pooled eldest = null;
+        for (Pooled pooled : connections.values()) {
+            if (pooled.inUse == 0 && (eldest == null || pooled.lastUsed < eldest.lastUsed)) {
+                eldest = pooled;
+            }
+        }
+        if (eldest == null) {
+            return false;
+        }
+        connections.remove(eldest.key);
+        eldest.connection.close();
+        return true;
+    }
+
+    private synchronized void closeIdle() {
+        long now = System.nanoTime();
+        for (Iterator<Pooled> iterator = connections.values().iterator(); iterator.hasNext(); ) {
+            Pooled pooled = iterator.next();
+            if (pooled.inUse == 0 && now - pooled.lastUsed >= idleTimeout.toNanos()) {
+                iterator.remove();
+                pooled.connection.close();
+            }
+        }
+    }
+
+    synchronized int size() {
+        return connections.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+        for (Iterator<Pooled> iterator = connections.values().iterator(); iterator.hasNext(); ) {
+            Pooled pooled = iterator.next();
+            // Connections still in use are closed when they are released
+            if (pooled.inUse == 0) {
+                iterator.remove();
+                pooled.connection.close();
+            }
+        }
+    }
+
+    @Value
+    static class Key {
+        File projectDir;
+
+        /**
+         * Null when connecting with the Gradle version of the build's wrapper.
+         */
+        @Nullable
+        String gradleVersion;
+    }
+
+    @FunctionalInterface
+    interface ConnectionFunction<T> {
+        T apply(ProjectConnection connection) throws IOException;
+    }
+
+    private static class Pooled {
+        final Key key;
+        final ProjectConnection connection;
+        int inUse;
+        long lastUsed = System.nanoTime();
+
+        Pooled(Key key, ProjectConnection connection) {
+            this.key = key;
+            this.connection = connection;
+        }
+    }
+}
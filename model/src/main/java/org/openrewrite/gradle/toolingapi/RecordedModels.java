@@ -0,0 +1,101 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.openrewrite.gradle.marker.GradleProject;
+import org.openrewrite.gradle.marker.GradleSettings;
+import org.openrewrite.marker.Marker;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes the fixtures of {@link Assertions#withRecordedToolingApi(Path)}: the markers of a test's Gradle
+ * files keyed by source path, along with a fingerprint of the inputs they were extracted from.
+ */
+final class RecordedModels {
+    private static final int MAGIC = 0x4f524d52;
+    private static final int FIXTURE_VERSION = 1;
+    private static final byte PROJECT = 0;
+    private static final byte SETTINGS = 1;
+
+    private RecordedModels() {
+    }
+
+    static void write(Path fixture, String inputs, Map<Path, Marker> markers) throws IOException {
+        OpenRewriteModelFormat format = new OpenRewriteModelFormat(OpenRewriteModelFormat.Encoding.SMILE.isAvailable() ?
+                OpenRewriteModelFormat.Encoding.SMILE : OpenRewriteModelFormat.Encoding.JSON, OpenRewriteModelFormat.CURRENT_VERSION);
+        Path dir = fixture.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, fixture.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FIXTURE_VERSION);
+                out.writeUTF(inputs);
+                out.writeUTF(format.getId());
+                out.writeInt(markers.size());
+                for (Map.Entry<Path, Marker> marker : markers.entrySet()) {
+                    out.writeUTF(marker.getKey().toString().replace(File.separatorChar, '/'));
+                    out.writeByte(marker.getValue() instanceof GradleSettings ? SETTINGS : PROJECT);
+                    byte[] bytes = format.write(marker.getValue());
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+            Files.move(tmp, fixture, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * @param inputs The fingerprint of the test's current inputs, which must match the one the fixture was recorded with.
+     */
+    static Map<Path, Marker> read(Path fixture, String inputs) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(fixture)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FIXTURE_VERSION) {
+                throw new IOException("Not a recorded model fixture, or one written by an incompatible version: " + fixture);
+            }
+            if (!inputs.equals(in.readUTF())) {
+                throw new IllegalStateException("The Gradle files, wrapper or init script of the test differ from those " +
+                                                fixture + " was recorded with. Record it again with -D" +
+                                                Assertions.RECORD_PROPERTY + "=true");
+            }
+            String id = in.readUTF();
+            OpenRewriteModelFormat format = OpenRewriteModelFormat.parse(id);
+            if (format == null) {
+                throw new IOException("Unable to read model format \"" + id + "\" of " + fixture);
+            }
+            Map<String, String> strings = new HashMap<>();
+            int count = in.readInt();
+            Map<Path, Marker> markers = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                Path sourcePath = Paths.get(in.readUTF());
+                byte kind = in.readByte();
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                markers.put(sourcePath, kind == SETTINGS ?
+                        format.read(bytes, GradleSettings.class, strings) :
+                        format.read(bytes, GradleProject.class, strings));
+            }
+            return markers;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Sent from the Gradle daemon to the client while a build is being extracted. Each project is announced by its outline,
+ * followed by each of the configurations listed in that outline.
+ */
+@Value
+class StreamedModel implements Serializable {
+    File projectDir;
+
+    /**
+     * Null for the outline of a project.
+     */
+    @Nullable
+    String configuration;
+
+    /**
+     * For the outline of a project, the configurations which follow it.
+     */
+    List<String> configurationNames;
+
+    OpenRewriteModelImpl model;
+}
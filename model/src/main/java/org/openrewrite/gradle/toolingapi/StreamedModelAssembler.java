@@ -0,0 +1,104 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.gradle.tooling.StreamedValueListener;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.gradle.marker.ExtractionMetrics;
+import org.openrewrite.gradle.marker.GradleDependencyConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Decodes the parts of a model sent by {@link OpenRewriteStreamingBuildAction} as they arrive and reassembles them
+ * into a complete {@link OpenRewriteModel} for each project. Only the project currently being received is held.
+ */
+class StreamedModelAssembler implements StreamedValueListener {
+    private final OpenRewriteModelListener listener;
+
+    private @Nullable File projectDir;
+    private @Nullable OpenRewriteModel outline;
+    private final Set<String> pending = new HashSet<>();
+    private final Map<String, GradleDependencyConfiguration> configurations = new HashMap<>();
+    private ExtractionMetrics metrics = ExtractionMetrics.builder().build();
+    private Map<String, String> strings = new HashMap<>();
+
+    StreamedModelAssembler(OpenRewriteModelListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void onValue(Object value) {
+        StreamedModel streamed = (StreamedModel) value;
+        if (streamed.getConfiguration() == null) {
+            projectDir = streamed.getProjectDir();
+            strings = new HashMap<>();
+            outline = OpenRewriteModel.from(streamed.getModel(), strings);
+            pending.clear();
+            pending.addAll(streamed.getConfigurationNames());
+            configurations.clear();
+            metrics = ExtractionMetrics.builder().build();
+            if (pending.isEmpty()) {
+                complete();
+            }
+            return;
+        }
+
+        if (outline == null) {
+            throw new IllegalStateException("Received configuration " + streamed.getConfiguration() + " before the outline of its project");
+        }
+        OpenRewriteModelImpl model = streamed.getModel();
+        GradleDependencyConfiguration configuration;
+        try {
+            long start = System.nanoTime();
+            OpenRewriteModelFormat format = OpenRewriteModelFormat.of(model);
+            configuration = format.read(model.getGradleProjectBytes(), GradleDependencyConfiguration.class, strings);
+            metrics = metrics.plus(OpenRewriteModel.metrics(model, format, null).withParseNanos(System.nanoTime() - start));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        configurations.put(streamed.getConfiguration(), configuration);
+        listener.configurationResolved(outline.getGradleProject(), configuration);
+        pending.remove(streamed.getConfiguration());
+        if (pending.isEmpty()) {
+            complete();
+        }
+    }
+
+    private void complete() {
+        assert projectDir != null && outline != null;
+        listener.projectExtracted(projectDir, outline.withResolvedConfigurations(configurations, metrics));
+        projectDir = null;
+        outline = null;
+        configurations.clear();
+    }
+
+    /**
+     * Delivers models which were returned complete, because the build could not stream them.
+     */
+    static void replay(Map<File, ? extends OpenRewriteModelProxy> models, OpenRewriteModelListener listener) {
+        for (Map.Entry<File, ? extends OpenRewriteModelProxy> entry : models.entrySet()) {
+            OpenRewriteModel model = OpenRewriteModel.from(entry.getValue());
+            for (GradleDependencyConfiguration configuration : model.getGradleProject().getConfigurations()) {
+                listener.configurationResolved(model.getGradleProject(), configuration);
+            }
+            listener.projectExtracted(entry.getKey(), model);
+        }
+    }
+}
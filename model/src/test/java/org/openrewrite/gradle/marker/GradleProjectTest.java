@@ -26,21 +26,28 @@
 import org.openrewrite.RecipeSerializer;
 import org.openrewrite.gradle.attributes.Category;
 import org.openrewrite.gradle.attributes.ProjectAttribute;
+import org.openrewrite.gradle.toolingapi.OpenRewriteBuildModel;
 import org.openrewrite.gradle.toolingapi.OpenRewriteModel;
 import org.openrewrite.gradle.toolingapi.OpenRewriteModelBuilder;
+import org.openrewrite.gradle.toolingapi.OpenRewriteModelListener;
+import org.openrewrite.gradle.toolingapi.OpenRewriteModelOptions;
 import org.openrewrite.maven.tree.ResolvedDependency;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -227,6 +234,64 @@ void transitiveDependencies() {
             assertThat(dependenciesByDepth).containsKeys(0, 1);
         }
 
+        @Test
+        void sharesTransitiveSubtreesBetweenConfigurations() {
+            // Direct dependencies differ in their requested scope, which is the name of the configuration
+            ResolvedDependency compileRewriteJava = directDependency("compileClasspath", "rewrite-java");
+            ResolvedDependency testCompileRewriteJava = directDependency("testCompileClasspath", "rewrite-java");
+            assertThat(testCompileRewriteJava).isNotSameAs(compileRewriteJava);
+
+            assertThat(compileRewriteJava.getDependencies()).isNotEmpty();
+            assertThat(testCompileRewriteJava.getDependencies()).hasSameSizeAs(compileRewriteJava.getDependencies());
+            for (int i = 0; i < compileRewriteJava.getDependencies().size(); i++) {
+                assertThat(testCompileRewriteJava.getDependencies().get(i)).isSameAs(compileRewriteJava.getDependencies().get(i));
+            }
+        }
+
+        private ResolvedDependency directDependency(String configuration, String artifactId) {
+            return requireNonNull(gradleProject.getConfiguration(configuration)).getDirectResolved().stream()
+              .filter(it -> artifactId.equals(it.getArtifactId()))
+              .findFirst()
+              .get();
+        }
+
+        @Test
+        void limitsDependencyDepth() throws IOException {
+            OpenRewriteModel model = OpenRewriteModelBuilder.forProjectDirectory(dir.toFile(), dir.resolve("build.gradle").toFile(),
+              OpenRewriteModelOptions.builder().maxDependencyDepth(2).build());
+            GradleDependencyConfiguration runtimeClasspath = requireNonNull(model.getGradleProject().getConfiguration("runtimeClasspath"));
+            assertThat(runtimeClasspath.getResolved()).allMatch(it -> it.getDepth() < 2);
+            assertThat(runtimeClasspath.getResolved()).anyMatch(it -> it.getDepth() == 1);
+        }
+
+        @Test
+        void extractsWithEmbeddedPlugin() throws IOException {
+            // The init script of the embedded plugin declares no repositories, so the plugin is not resolved from any
+            OpenRewriteModel model = OpenRewriteModelBuilder.forProjectDirectory(dir.toFile(), dir.resolve("build.gradle").toFile(),
+              OpenRewriteModelOptions.builder().embeddedPlugin(true).offline(true).build());
+            assertThat(model.getGradleProject().getConfigurations()).extracting(GradleDependencyConfiguration::getName)
+              .containsExactlyInAnyOrderElementsOf(gradleProject.getConfigurations().stream().map(GradleDependencyConfiguration::getName).collect(toList()));
+            assertThat(requireNonNull(model.getGradleProject().getConfiguration("runtimeClasspath")).getResolved())
+              .hasSameSizeAs(requireNonNull(gradleProject.getConfiguration("runtimeClasspath")).getResolved());
+        }
+
+        @Test
+        void reportsExtractionMetrics() throws IOException {
+            ExtractionMetrics metrics = OpenRewriteModelBuilder.forProjectDirectory(dir.toFile(), dir.resolve("build.gradle").toFile())
+              .getMetrics();
+            assertThat(metrics.getProjectPath()).isEqualTo(":");
+            assertThat(metrics.getPayloadBytes()).isPositive();
+            assertThat(metrics.getParseNanos()).isPositive();
+            assertThat(metrics.getConfigurations())
+              .filteredOn(it -> "runtimeClasspath".equals(it.getName()))
+              .singleElement()
+              .satisfies(it -> {
+                  assertThat(it.isResolved()).isTrue();
+                  assertThat(it.getResolveNanos()).isPositive();
+                  assertThat(it.getResolvedDependencies()).isGreaterThan(it.getDirectDependencies());
+              });
+        }
+
         @Test
         void requestedCorrespondsDirectlyToResolved() {
             assertThat(requireNonNull(gradleProject.getConfiguration("compileClasspath")).getRequested())
@@ -281,6 +346,68 @@ void bom() {
         }
     }
 
+    @SuppressWarnings("NotNullFieldNotInitialized")
+    @Nested
+    class manyConfigurations {
+        @TempDir
+        static Path dir;
+
+        static GradleProject gradleProject;
+
+        //language=groovy
+        static String buildGradle = """
+          plugins{
+              id 'java'
+          }
+
+          repositories{
+              mavenCentral()
+          }
+
+          (1..20).each { i ->
+              configurations.create("custom$i") {
+                  extendsFrom configurations.implementation
+              }
+          }
+
+          configurations.all { conf ->
+              conf.incoming.beforeResolve {
+                  file("resolutions.txt") << conf.name + System.lineSeparator()
+              }
+          }
+
+          dependencies{
+              implementation 'com.fasterxml.jackson.core:jackson-databind:2.18.3'
+          }
+          """;
+
+        @BeforeAll
+        static void gradleProject() throws IOException {
+            try (InputStream is = new ByteArrayInputStream(buildGradle.getBytes(StandardCharsets.UTF_8))) {
+                Files.write(dir.resolve("build.gradle"), readAllBytes(is));
+            }
+
+            try (InputStream is = new ByteArrayInputStream("rootProject.name = \"sample\"".getBytes(StandardCharsets.UTF_8))) {
+                Files.write(dir.resolve("settings.gradle"), readAllBytes(is));
+            }
+
+            OpenRewriteModel model = OpenRewriteModelBuilder.forProjectDirectory(dir.toFile(), dir.resolve("build.gradle").toFile());
+            gradleProject = model.getGradleProject();
+        }
+
+        @Test
+        void eachConfigurationIsResolvedOnce() throws IOException {
+            List<String> resolutions = Files.readAllLines(dir.resolve("resolutions.txt"));
+            assertThat(resolutions)
+              .as("inferred constraints should be captured during the configuration's own resolution")
+              .noneMatch(it -> it.endsWith("Inheritor"))
+              .doesNotHaveDuplicates()
+              .contains("custom1", "custom20", "compileClasspath", "runtimeClasspath");
+            assertThat(requireNonNull(gradleProject.getConfiguration("custom20")).getDirectResolved())
+              .anyMatch(it -> "jackson-databind".equals(it.getArtifactId()));
+        }
+    }
+
     @SuppressWarnings("NotNullFieldNotInitialized")
     @Nested
     class multiProject {
@@ -290,6 +417,7 @@ class multiProject {
         static GradleProject rootGradleProject;
         static GradleProject aGradleProject;
         static GradleProject bGradleProject;
+        static OpenRewriteBuildModel buildModel;
 
         //language=groovy
         static String aBuildGradle = """
@@ -359,6 +487,7 @@ static void gradleProject() throws IOException {
             aGradleProject = aModel.getGradleProject();
             OpenRewriteModel bModel = OpenRewriteModelBuilder.forProjectDirectory(bDir.toFile(), bDir.resolve("build.gradle").toFile());
             bGradleProject = bModel.getGradleProject();
+            buildModel = OpenRewriteModelBuilder.forBuild(dir.toFile());
         }
 
         @Test
@@ -366,5 +495,61 @@ void projectDependencyHasAttribute() {
             assertThat(requireNonNull(bGradleProject.getConfiguration("compileClasspath")).getRequested())
               .anyMatch(dep -> dep.findAttribute(ProjectAttribute.class).isPresent() && "a".equals(dep.getGav().getArtifactId()));
         }
+
+        @Test
+        void allProjectsFromSingleBuild() {
+            assertThat(buildModel.getProjects()).hasSize(3);
+            assertThat(buildModel.getRootProject().getGradleProject().getPath()).isEqualTo(":");
+            assertThat(buildModel.getGradleSettings()).isNotNull();
+            GradleProject b = requireNonNull(buildModel.forProjectDirectory(dir.resolve("b").toFile())).getGradleProject();
+            assertThat(b.getPath()).isEqualTo(":b");
+            assertThat(b.getConfigurations())
+              .extracting(GradleDependencyConfiguration::getName)
+              .containsExactlyInAnyOrderElementsOf(bGradleProject.getConfigurations().stream().map(GradleDependencyConfiguration::getName).collect(toList()));
+        }
+
+        @Test
+        void resolvesSelectedConfigurationsOnly() throws IOException {
+            OpenRewriteModel model = OpenRewriteModelBuilder.forProjectDirectory(dir.resolve("b").toFile(), null,
+              OpenRewriteModelOptions.builder().includeConfiguration("*Classpath").excludeConfiguration("test*").build());
+            GradleProject b = model.getGradleProject();
+            assertThat(b.getConfigurations()).hasSameSizeAs(bGradleProject.getConfigurations());
+            GradleDependencyConfiguration compileClasspath = requireNonNull(b.getConfiguration("compileClasspath"));
+            assertThat(compileClasspath.getResolved()).isNotEmpty();
+
+            GradleDependencyConfiguration testCompileClasspath = requireNonNull(b.getConfiguration("testCompileClasspath"));
+            assertThat(testCompileClasspath.getResolved()).isEmpty();
+            assertThat(testCompileClasspath.getRequested()).isNotEmpty();
+            // Not selected is not a failure to resolve
+            assertThat(testCompileClasspath.getExceptionType()).isNull();
+            assertThat(model.getMetrics().notSelectedConfigurations())
+              .contains("testCompileClasspath", "testRuntimeClasspath")
+              .doesNotContain("compileClasspath", "runtimeClasspath");
+        }
+
+        @Test
+        void streamsConfigurationsAsTheyAreResolved() throws IOException {
+            Map<String, List<String>> resolved = new HashMap<>();
+            Map<String, OpenRewriteModel> extracted = new HashMap<>();
+            OpenRewriteModelBuilder.forBuild(dir.toFile(), OpenRewriteModelOptions.DEFAULTS, new OpenRewriteModelListener() {
+                @Override
+                public void configurationResolved(GradleProject project, GradleDependencyConfiguration configuration) {
+                    assertThat(extracted).doesNotContainKey(project.getPath());
+                    resolved.computeIfAbsent(project.getPath(), p -> new ArrayList<>()).add(configuration.getName());
+                }
+
+                @Override
+                public void projectExtracted(File projectDir, OpenRewriteModel model) {
+                    extracted.put(model.getGradleProject().getPath(), model);
+                }
+            });
+
+            assertThat(extracted).containsOnlyKeys(":", ":a", ":b");
+            assertThat(resolved.get(":b"))
+              .containsExactlyInAnyOrderElementsOf(bGradleProject.getConfigurations().stream().map(GradleDependencyConfiguration::getName).collect(toList()));
+            GradleDependencyConfiguration compileClasspath = requireNonNull(extracted.get(":b").getGradleProject().getConfiguration("compileClasspath"));
+            assertThat(compileClasspath.getResolved()).isNotEmpty();
+            assertThat(compileClasspath.getExtendsFrom()).extracting(GradleDependencyConfiguration::getName).contains("implementation");
+        }
     }
 }
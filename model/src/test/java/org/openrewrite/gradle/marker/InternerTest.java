@@ -0,0 +1,45 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.marker;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.maven.tree.GroupArtifact;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InternerTest {
+
+    @Test
+    void canonicalizesEqualValues() {
+        Interner<GroupArtifact> interner = new Interner<>(10);
+        GroupArtifact first = interner.intern(new GroupArtifact("org.example", "a"));
+        GroupArtifact second = interner.intern(new GroupArtifact("org.example", "a"));
+        assertThat(second).isSameAs(first);
+        assertThat(interner.getHits()).isEqualTo(1);
+        assertThat(interner.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void stopsGrowingOnceFull() {
+        Interner<GroupArtifact> interner = new Interner<>(1);
+        GroupArtifact a = interner.intern(new GroupArtifact("org.example", "a"));
+        GroupArtifact b = new GroupArtifact("org.example", "b");
+        assertThat(interner.intern(b)).isSameAs(b);
+        assertThat(interner.intern(new GroupArtifact("org.example", "b"))).isNotSameAs(b);
+        assertThat(interner.intern(new GroupArtifact("org.example", "a"))).isSameAs(a);
+        assertThat(interner.size()).isEqualTo(1);
+    }
+}
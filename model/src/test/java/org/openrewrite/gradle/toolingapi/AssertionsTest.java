@@ -17,14 +17,18 @@
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledIf;
+import org.junit.jupiter.api.io.TempDir;
 import org.openrewrite.gradle.marker.GradleProject;
 import org.openrewrite.gradle.util.GradleWrapper;
 import org.openrewrite.test.RewriteTest;
 
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.openrewrite.gradle.Assertions.buildGradle;
 import static org.openrewrite.gradle.Assertions.settingsGradle;
 import static org.openrewrite.test.SourceSpecs.text;
@@ -64,6 +68,79 @@ void withCustomDistributionUri() {
         );
     }
 
+    @Test
+    void reusesMarkersOfIdenticalFixtures(@TempDir Path cacheDir) {
+        OpenRewriteModelCache cache = OpenRewriteModelCache.in(cacheDir.toFile());
+        AtomicReference<GradleProject> first = new AtomicReference<>();
+        for (int i = 0; i < 2; i++) {
+            rewriteRun(
+              spec -> spec.beforeRecipe(Assertions.withToolingApi(null, null, cache)),
+              //language=groovy
+              buildGradle(
+                """
+                  plugins {
+                      id 'java'
+                  }
+                  """,
+                spec -> spec.afterRecipe(cu -> {
+                    GradleProject gp = cu.getMarkers().findFirst(GradleProject.class).get();
+                    if (!first.compareAndSet(null, gp)) {
+                        assertThat(gp.getId()).isEqualTo(first.get().getId());
+                    }
+                })
+              )
+            );
+        }
+        assertThat(cacheDir.toFile().list()).isNotEmpty();
+    }
+
+    @Test
+    void replaysRecordedModels(@TempDir Path dir) {
+        Path fixture = dir.resolve("java.model");
+        System.setProperty(Assertions.RECORD_PROPERTY, "true");
+        try {
+            rewriteRun(
+              spec -> spec.beforeRecipe(Assertions.withRecordedToolingApi(fixture)),
+              //language=groovy
+              buildGradle(
+                """
+                  plugins {
+                      id 'java'
+                  }
+                  """
+              )
+            );
+        } finally {
+            System.clearProperty(Assertions.RECORD_PROPERTY);
+        }
+
+        rewriteRun(
+          spec -> spec.beforeRecipe(Assertions.withRecordedToolingApi(fixture)),
+          //language=groovy
+          buildGradle(
+            """
+              plugins {
+                  id 'java'
+              }
+              """,
+            spec -> spec.afterRecipe(cu -> assertThat(cu.getMarkers().findFirst(GradleProject.class))
+              .hasValueSatisfying(gp -> assertThat(gp.getConfiguration("compileClasspath")).isNotNull()))
+          )
+        );
+
+        assertThatThrownBy(() -> rewriteRun(
+          spec -> spec.beforeRecipe(Assertions.withRecordedToolingApi(fixture)),
+          //language=groovy
+          buildGradle(
+            """
+              plugins {
+                  id 'java-library'
+              }
+              """
+          )
+        )).hasStackTraceContaining("differ from those");
+    }
+
     @Test
     void customInitScript() {
         //language=groovy
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.gradle.tooling.BuildCancelledException;
+import org.gradle.tooling.CancellationToken;
+import org.gradle.tooling.CancellationTokenSource;
+import org.gradle.tooling.ConfigurableLauncher;
+import org.gradle.tooling.GradleConnector;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExtractionCancellationTest {
+
+    AtomicReference<CancellationToken> applied = new AtomicReference<>();
+
+    ConfigurableLauncher<?> launcher() {
+        return (ConfigurableLauncher<?>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ConfigurableLauncher.class},
+          (proxy, method, args) -> {
+              if ("withCancellationToken".equals(method.getName())) {
+                  applied.set((CancellationToken) args[0]);
+              }
+              return proxy;
+          });
+    }
+
+    @Test
+    void passesASingleTokenThrough() {
+        CancellationTokenSource source = GradleConnector.newCancellationTokenSource();
+        OpenRewriteModelOptions options = OpenRewriteModelOptions.builder().cancellationToken(source.token()).build();
+        try (ExtractionCancellation cancellation = ExtractionCancellation.of(options, null)) {
+            cancellation.applyTo(launcher());
+        }
+        assertThat(applied.get()).isSameAs(source.token());
+    }
+
+    @Test
+    void cancelsOnceTheDeadlinePasses() throws InterruptedException {
+        OpenRewriteModelOptions options = OpenRewriteModelOptions.builder()
+          .deadline(Instant.now().plus(Duration.ofMillis(50)))
+          .build();
+        try (ExtractionCancellation cancellation = ExtractionCancellation.of(options, null)) {
+            cancellation.applyTo(launcher());
+            for (int i = 0; i < 100 && !applied.get().isCancellationRequested(); i++) {
+                Thread.sleep(20);
+            }
+            assertThat(applied.get().isCancellationRequested()).isTrue();
+            assertThat(cancellation.failure(new BuildCancelledException("cancelled")))
+              .hasMessageContaining("deadline");
+        }
+    }
+
+    @Test
+    void failsRightAwayOnceCancelled() {
+        CancellationTokenSource source = GradleConnector.newCancellationTokenSource();
+        source.cancel();
+        OpenRewriteModelOptions options = OpenRewriteModelOptions.builder().cancellationToken(source.token()).build();
+        assertThatThrownBy(() -> ExtractionCancellation.of(options, null))
+          .isInstanceOf(BuildCancelledException.class);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExtractionSchedulerTest {
+    static final OpenRewriteBuildModel EMPTY = new OpenRewriteBuildModel(Collections.emptyMap());
+
+    @Test
+    void limitsConcurrentBuilds() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        OpenRewriteModelOptions options = OpenRewriteModelOptions.builder()
+          .maxConcurrentBuilds(4)
+          .maxDaemonHeapMegabytes(1024)
+          .daemonHeapMegabytes(512)
+          .build();
+        Map<File, Object> delivered = new ConcurrentHashMap<>();
+        try (ExtractionScheduler scheduler = new ExtractionScheduler(options, (dir, token) -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(10);
+            running.decrementAndGet();
+            return EMPTY;
+        })) {
+            scheduler.submitAll(IntStream.range(0, 20).mapToObj(i -> new File("build" + i)), new OpenRewriteBuildListener() {
+                @Override
+                public void buildExtracted(File rootProjectDir, OpenRewriteBuildModel model) {
+                    delivered.put(rootProjectDir, model);
+                }
+
+                @Override
+                public void buildFailed(File rootProjectDir, Throwable failure) {
+                    delivered.put(rootProjectDir, failure);
+                }
+            }).get(10, TimeUnit.SECONDS);
+        }
+        assertThat(delivered).hasSize(20).containsValue(EMPTY).doesNotContainValue(null);
+        // Limited by heap rather than by the number of builds
+        assertThat(maxRunning.get()).isBetween(1, 2);
+    }
+
+    @Test
+    void cancelsBuildsWhichTimeOut() throws Exception {
+        CountDownLatch cancelled = new CountDownLatch(1);
+        OpenRewriteModelOptions options = OpenRewriteModelOptions.builder()
+          .extractionTimeout(Duration.ofMillis(50))
+          .build();
+        try (ExtractionScheduler scheduler = new ExtractionScheduler(options, (dir, token) -> {
+            while (!token.isCancellationRequested()) {
+                Thread.sleep(5);
+            }
+            cancelled.countDown();
+            throw new IllegalStateException("cancelled");
+        })) {
+            CompletableFuture<OpenRewriteBuildModel> result = scheduler.submit(new File("hung"));
+            assertThat(result).failsWithin(Duration.ofSeconds(10))
+              .withThrowableOfType(ExecutionException.class)
+              .withCauseInstanceOf(TimeoutException.class);
+            assertThat(cancelled.await(10, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InitScriptsTest {
+
+    @Test
+    void sharesScriptsWithTheSameContents() throws IOException {
+        Path bundled = InitScripts.path(null);
+        assertThat(InitScripts.path(null)).isEqualTo(bundled);
+        assertThat(Files.readAllBytes(bundled)).isEqualTo(BuildInputs.bundledInitScript());
+
+        Path custom = InitScripts.path("allprojects {}");
+        assertThat(custom).isNotEqualTo(bundled).hasContent("allprojects {}");
+        assertThat(custom.getParent()).isEqualTo(bundled.getParent());
+    }
+
+    @Test
+    void rewritesScriptsRemovedFromUnderneath() throws IOException {
+        Path script = InitScripts.path("allprojects { }");
+        Files.delete(script);
+        assertThat(InitScripts.path("allprojects { }")).hasContent("allprojects { }");
+    }
+}
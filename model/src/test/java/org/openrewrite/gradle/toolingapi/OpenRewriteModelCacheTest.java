@@ -0,0 +1,79 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenRewriteModelCacheTest {
+
+    static OpenRewriteModelImpl model = new OpenRewriteModelImpl("json-1", new byte[]{1, 2, 3}, null);
+
+    @Test
+    void roundTrip(@TempDir Path dir) {
+        OpenRewriteModelCache cache = OpenRewriteModelCache.in(dir.toFile());
+        assertThat(cache.get("a")).isNull();
+
+        cache.put("a", singletonMap("sub", model));
+        Map<String, OpenRewriteModelImpl> cached = cache.get("a");
+        assertThat(cached).containsOnlyKeys("sub");
+        assertThat(cached.get("sub").getFormat()).isEqualTo("json-1");
+        assertThat(cached.get("sub").getGradleProjectBytes()).containsExactly(1, 2, 3);
+        assertThat(cached.get("sub").getGradleSettingsBytes()).isNull();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed(@TempDir Path dir) throws IOException {
+        OpenRewriteModelCache cache = OpenRewriteModelCache.builder().directory(dir.toFile()).maxEntries(2).build();
+        cache.put("a", singletonMap("", model));
+        cache.put("b", singletonMap("", model));
+        Files.setLastModifiedTime(dir.resolve("a.model"), FileTime.fromMillis(1_000));
+        Files.setLastModifiedTime(dir.resolve("b.model"), FileTime.fromMillis(2_000));
+
+        // Reading an entry marks it as recently used
+        assertThat(cache.get("a")).isNotNull();
+        cache.put("c", singletonMap("", model));
+
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isNotNull();
+    }
+
+    @Test
+    void fingerprintChangesWithBuildInputs(@TempDir Path dir) throws IOException {
+        Files.write(dir.resolve("settings.gradle"), "rootProject.name = 'sample'".getBytes());
+        Files.write(dir.resolve("build.gradle"), "plugins { id 'java' }".getBytes());
+        Files.createDirectories(dir.resolve("src/main/java"));
+        Files.write(dir.resolve("src/main/java/A.java"), "class A {}".getBytes());
+        String before = BuildInputs.fingerprint(dir.toFile(), null, emptyList());
+
+        Files.write(dir.resolve("src/main/java/A.java"), "class A { int a; }".getBytes());
+        assertThat(BuildInputs.fingerprint(dir.toFile(), null, emptyList())).isEqualTo(before);
+
+        Files.write(dir.resolve("gradle.properties"), "version=1.0".getBytes());
+        assertThat(BuildInputs.fingerprint(dir.toFile(), null, emptyList())).isNotEqualTo(before);
+    }
+}
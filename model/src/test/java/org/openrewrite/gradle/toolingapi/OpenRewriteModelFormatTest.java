@@ -0,0 +1,233 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.openrewrite.gradle.marker.GradleBuildscript;
+import org.openrewrite.gradle.marker.GradleDependencyConfiguration;
+import org.openrewrite.gradle.marker.GradleProject;
+import org.openrewrite.maven.tree.Dependency;
+import org.openrewrite.maven.tree.GroupArtifactVersion;
+import org.openrewrite.maven.tree.ResolvedDependency;
+import org.openrewrite.maven.tree.ResolvedGroupArtifactVersion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+import static java.util.Collections.*;
+import static java.util.Objects.requireNonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.openrewrite.Tree.randomId;
+
+class OpenRewriteModelFormatTest {
+
+    static GradleProject gradleProject = new GradleProject(randomId(), "org.example", "sample", "1.0", ":",
+      emptyList(), emptyList(), emptyList(), emptyMap(), new GradleBuildscript(randomId(), emptyList(), emptyMap()));
+
+    /**
+     * Like the plugin's interners do, shares coordinates and requested dependencies between the configurations.
+     */
+    static GradleProject sharedDependencies = sharedDependencies();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"json-1", "json-2", "json-3", "json-3-indexed", "smile-1", "smile-2", "smile-3", "smile-3-indexed"})
+    void roundTrip(String id) throws IOException {
+        OpenRewriteModelFormat format = OpenRewriteModelFormat.parse(id);
+        assertThat(format).isNotNull();
+        byte[] bytes = format.write(sharedDependencies);
+        OpenRewriteModel model = OpenRewriteModel.from(new OpenRewriteModelImpl(format.getId(), bytes, null));
+        assertThat(model.getGradleProject()).isEqualTo(sharedDependencies);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"json-2", "json-3", "smile-2", "smile-3"})
+    void readsSharedCoordinatesAsSameInstance(String id) throws IOException {
+        OpenRewriteModelFormat format = OpenRewriteModelFormat.parse(id);
+        assertThat(format).isNotNull();
+        byte[] bytes = format.write(sharedDependencies);
+        GradleProject project = OpenRewriteModel.from(new OpenRewriteModelImpl(format.getId(), bytes, null)).getGradleProject();
+
+        List<ResolvedDependency> compile = requireNonNull(project.getConfiguration("compileClasspath")).getDirectResolved();
+        List<ResolvedDependency> runtime = requireNonNull(project.getConfiguration("runtimeClasspath")).getDirectResolved();
+        List<ResolvedDependency> test = requireNonNull(project.getConfiguration("testRuntimeClasspath")).getDirectResolved();
+        for (int i = 0; i < compile.size(); i++) {
+            assertThat(runtime.get(i).getGav()).isEqualTo(compile.get(i).getGav()).isSameAs(compile.get(i).getGav());
+            assertThat(test.get(i).getGav()).isSameAs(compile.get(i).getGav());
+            assertThat(runtime.get(i).getRequested()).isSameAs(compile.get(i).getRequested());
+            assertThat(test.get(i).getRequested()).isSameAs(compile.get(i).getRequested());
+        }
+        // Distinct coordinates still share their strings through the string table
+        assertThat(compile.get(1).getGroupId()).isSameAs(compile.get(0).getGroupId());
+        assertThat(compile.get(1).getVersion()).isSameAs(compile.get(0).getVersion());
+    }
+
+    @Test
+    void internedFormatIsSmallerThanLegacy() throws IOException {
+        byte[] legacy = requireNonNull(OpenRewriteModelFormat.parse("json-1")).write(sharedDependencies);
+        byte[] interned = requireNonNull(OpenRewriteModelFormat.parse("json-2")).write(sharedDependencies);
+        assertThat(interned.length).isLessThan(legacy.length);
+    }
+
+    private static GradleProject sharedDependencies() {
+        List<ResolvedGroupArtifactVersion> gavs = Arrays.asList(
+          new ResolvedGroupArtifactVersion(null, "org.example", "library", "1.0", null),
+          new ResolvedGroupArtifactVersion(null, "org.example", "other-library", "1.0", null));
+        List<Dependency> requested = new ArrayList<>();
+        for (ResolvedGroupArtifactVersion gav : gavs) {
+            requested.add(Dependency.builder()
+              .gav(new GroupArtifactVersion(gav.getGroupId(), gav.getArtifactId(), gav.getVersion()))
+              .type("jar")
+              .exclusions(emptyList())
+              .attributes(emptyMap())
+              .build());
+        }
+        Map<String, GradleDependencyConfiguration> nameToConfiguration = new LinkedHashMap<>();
+        for (String name : Arrays.asList("compileClasspath", "runtimeClasspath", "testRuntimeClasspath")) {
+            List<ResolvedDependency> resolved = new ArrayList<>();
+            for (int i = 0; i < gavs.size(); i++) {
+                resolved.add(ResolvedDependency.builder()
+                  .gav(gavs.get(i))
+                  .requested(requested.get(i))
+                  .dependencies(emptyList())
+                  .licenses(emptyList())
+                  .type("jar")
+                  .depth(0)
+                  .build());
+            }
+            nameToConfiguration.put(name, new GradleDependencyConfiguration(name, null, true, true, false, false,
+              emptyList(), requested, resolved, null, null, emptyList(), emptyMap()));
+        }
+        return gradleProject.withNameToConfiguration(nameToConfiguration);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"json-3", "smile-3"})
+    void roundTripDeepDependencyGraph(String id) throws IOException {
+        ResolvedDependency dependency = null;
+        for (int depth = 9_999; depth >= 0; depth--) {
+            Dependency requested = Dependency.builder()
+              .gav(new GroupArtifactVersion("org.example", "library-" + depth, "1.0"))
+              .type("jar")
+              .scope("runtimeClasspath")
+              .exclusions(emptyList())
+              .attributes(emptyMap())
+              .build();
+            dependency = ResolvedDependency.builder()
+              .gav(new ResolvedGroupArtifactVersion(null, "org.example", "library-" + depth, "1.0", null))
+              .requested(requested)
+              .dependencies(dependency == null ? emptyList() : singletonList(dependency))
+              .licenses(emptyList())
+              .type("jar")
+              .depth(depth)
+              .build();
+        }
+        GradleDependencyConfiguration runtimeClasspath = new GradleDependencyConfiguration("runtimeClasspath", null,
+          true, true, false, false, emptyList(), emptyList(), singletonList(dependency), null, null, emptyList(), emptyMap());
+        GradleProject deep = gradleProject.withNameToConfiguration(singletonMap("runtimeClasspath", runtimeClasspath));
+
+        OpenRewriteModelFormat format = OpenRewriteModelFormat.parse(id);
+        assertThat(format).isNotNull();
+        byte[] bytes = format.write(deep);
+        OpenRewriteModel model = OpenRewriteModel.from(new OpenRewriteModelImpl(format.getId(), bytes, null));
+
+        GradleDependencyConfiguration read = model.getGradleProject().getConfiguration("runtimeClasspath");
+        assertThat(read).isNotNull();
+        int levels = 0;
+        for (List<ResolvedDependency> level = read.getDirectResolved(); !level.isEmpty(); level = level.get(0).getDependencies()) {
+            assertThat(level.get(0).getArtifactId()).isEqualTo("library-" + levels);
+            levels++;
+        }
+        assertThat(levels).isEqualTo(10_000);
+    }
+
+    @Test
+    void decodesIndexedConfigurationsOnDemand() throws IOException {
+        GradleDependencyConfiguration implementation = new GradleDependencyConfiguration("implementation", null,
+          true, false, false, true, emptyList(), emptyList(), emptyList(), null, null, emptyList(), emptyMap());
+        GradleDependencyConfiguration compileClasspath = new GradleDependencyConfiguration("compileClasspath", null,
+          true, true, false, false, singletonList(implementation), emptyList(), emptyList(), null, null, emptyList(), emptyMap());
+        GradleDependencyConfiguration annotationProcessor = new GradleDependencyConfiguration("annotationProcessor", null,
+          true, true, false, false, emptyList(), emptyList(), emptyList(), null, null, emptyList(), emptyMap());
+        Map<String, GradleDependencyConfiguration> nameToConfiguration = new LinkedHashMap<>();
+        nameToConfiguration.put("implementation", implementation);
+        nameToConfiguration.put("compileClasspath", compileClasspath);
+        nameToConfiguration.put("annotationProcessor", annotationProcessor);
+
+        OpenRewriteModelFormat format = OpenRewriteModelFormat.parse("smile-3-indexed");
+        assertThat(format).isNotNull();
+        byte[] bytes = format.write(gradleProject.withNameToConfiguration(nameToConfiguration));
+
+        // The last configuration is at the end of the model. Wipe it, so that decoding it would fail.
+        byte[] corrupted = bytes.clone();
+        int annotationProcessorLength = requireNonNull(OpenRewriteModelFormat.parse("smile-3")).write(annotationProcessor).length;
+        Arrays.fill(corrupted, corrupted.length - annotationProcessorLength, corrupted.length, (byte) 0);
+        GradleProject project = OpenRewriteModel.from(new OpenRewriteModelImpl(format.getId(), corrupted, null)).getGradleProject();
+
+        GradleDependencyConfiguration read = project.getConfiguration("compileClasspath");
+        assertThat(read).isNotNull();
+        assertThat(read.getExtendsFrom()).singleElement().isSameAs(project.getConfiguration("implementation"));
+        assertThatThrownBy(() -> project.getConfiguration("annotationProcessor")).isInstanceOf(UncheckedIOException.class);
+
+        GradleProject intact = OpenRewriteModel.from(new OpenRewriteModelImpl(format.getId(), bytes, null)).getGradleProject();
+        assertThat(intact.getConfigurations()).extracting(GradleDependencyConfiguration::getName)
+          .containsExactly("implementation", "compileClasspath", "annotationProcessor");
+    }
+
+    @Test
+    void negotiatesFirstSupportedFormat() {
+        assertThat(OpenRewriteModelFormat.negotiate("cbor-1,smile-2,json-1").getId()).isEqualTo("smile-2");
+        assertThat(OpenRewriteModelFormat.negotiate("json-99,json-1").getId()).isEqualTo("json-1");
+        assertThat(OpenRewriteModelFormat.negotiate("json-2-indexed,json-3-indexed").getId()).isEqualTo("json-3-indexed");
+    }
+
+    @Test
+    void fallsBackToLegacyFormat() {
+        assertThat(OpenRewriteModelFormat.negotiate(null)).isEqualTo(OpenRewriteModelFormat.LEGACY);
+        assertThat(OpenRewriteModelFormat.negotiate("cbor-1")).isEqualTo(OpenRewriteModelFormat.LEGACY);
+    }
+
+    @Test
+    void prefersSmileWhenAvailable() {
+        assertThat(OpenRewriteModelFormat.requested()).startsWith("smile-");
+    }
+
+    @Test
+    void rejectsUnknownForcedEncoding() {
+        System.setProperty(OpenRewriteModelFormat.ENCODING_SYSTEM_PROPERTY, "smiley");
+        try {
+            assertThatThrownBy(OpenRewriteModelFormat::requested)
+              .isInstanceOf(IllegalArgumentException.class)
+              .hasMessageContaining("smiley")
+              .hasMessageContaining("json, smile");
+        } finally {
+            System.clearProperty(OpenRewriteModelFormat.ENCODING_SYSTEM_PROPERTY);
+        }
+    }
+
+    @Test
+    void acceptsForcedEncodingInAnyCase() {
+        System.setProperty(OpenRewriteModelFormat.ENCODING_SYSTEM_PROPERTY, "Json");
+        try {
+            assertThat(OpenRewriteModelFormat.requested()).startsWith("json-3").doesNotContain("smile");
+        } finally {
+            System.clearProperty(OpenRewriteModelFormat.ENCODING_SYSTEM_PROPERTY);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenRewriteModelOptionsTest {
+
+    @Test
+    void defaultsToNoBuildFlags() {
+        assertThat(OpenRewriteModelOptions.DEFAULTS.arguments())
+          .singleElement().asString().startsWith("-P" + OpenRewriteModelFormat.REQUESTED_FORMATS_PROPERTY + "=");
+    }
+
+    @Test
+    void passesBuildFlags() {
+        OpenRewriteModelOptions options = OpenRewriteModelOptions.builder()
+          .parallel(true)
+          .offline(true)
+          .configureOnDemand(true)
+          .maxWorkers(2)
+          .build();
+        assertThat(options.arguments())
+          .containsSubsequence("--parallel", "--offline", "--configure-on-demand", "--max-workers=2");
+    }
+
+    @Test
+    void capsDaemonHeapWhenTotalHeapIsLimited() {
+        assertThat(OpenRewriteModelOptions.builder().jvmArgument("-Xmx4g").build().daemonJvmArguments())
+          .containsExactly("-Xmx4g");
+        assertThat(OpenRewriteModelOptions.builder()
+          .jvmArgument("-Xmx4g")
+          .maxDaemonHeapMegabytes(2048)
+          .daemonHeapMegabytes(1024)
+          .build()
+          .daemonJvmArguments())
+          .containsExactly("-Xmx4g", "-Xmx1024m");
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2025 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle.toolingapi;
+
+import org.gradle.tooling.ProjectConnection;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectConnectionPoolTest {
+
+    AtomicInteger opened = new AtomicInteger();
+    Set<ProjectConnection> closed = ConcurrentHashMap.newKeySet();
+
+    ProjectConnection connect(ProjectConnectionPool.Key key) {
+        opened.incrementAndGet();
+        return (ProjectConnection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ProjectConnection.class},
+          (proxy, method, args) -> {
+              if ("close".equals(method.getName())) {
+                  closed.add((ProjectConnection) proxy);
+              }
+              return null;
+          });
+    }
+
+    static ProjectConnectionPool.Key key(String dir) {
+        return new ProjectConnectionPool.Key(new File(dir), null);
+    }
+
+    @Test
+    void reusesConnections() throws IOException {
+        try (ProjectConnectionPool pool = new ProjectConnectionPool(2, Duration.ZERO, this::connect)) {
+            ProjectConnection first = pool.withConnection(key("a"), c -> c);
+            ProjectConnection second = pool.withConnection(key("a"), c -> c);
+            assertThat(second).isSameAs(first);
+            assertThat(opened).hasValue(1);
+            assertThat(closed).isEmpty();
+        }
+        assertThat(closed).hasSize(1);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenFull() throws IOException {
+        try (ProjectConnectionPool pool = new ProjectConnectionPool(1, Duration.ZERO, this::connect)) {
+            ProjectConnection a = pool.withConnection(key("a"), c -> c);
+            pool.withConnection(key("b"), c -> c);
+            assertThat(closed).containsExactly(a);
+            assertThat(pool.size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void doesNotCloseConnectionsInUse() throws IOException {
+        try (ProjectConnectionPool pool = new ProjectConnectionPool(1, Duration.ZERO, this::connect)) {
+            pool.withConnection(key("a"), a -> {
+                // The pool is full and its only connection is busy, so this one is not pooled
+                ProjectConnection b = pool.withConnection(key("b"), c -> c);
+                assertThat(closed).containsExactly(b);
+                pool.close();
+                assertThat(closed).doesNotContain(a);
+                return a;
+            });
+            assertThat(closed).hasSize(2);
+        }
+    }
+
+    @Test
+    void closesIdleConnections() throws Exception {
+        try (ProjectConnectionPool pool = new ProjectConnectionPool(2, Duration.ofMillis(50), this::connect)) {
+            pool.withConnection(key("a"), c -> c);
+            for (int i = 0; i < 100 && pool.size() > 0; i++) {
+                Thread.sleep(10);
+            }
+            assertThat(pool.size()).isZero();
+            assertThat(closed).hasSize(1);
+        }
+    }
+}
@@ -1,3 +1,5 @@
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier
+
 plugins {
     id("java-library")
     id("org.openrewrite.build.metadata")
@@ -22,6 +24,8 @@ val latest = if (project.hasProperty("releasing")) {
 dependencies {
     implementation(project(":model"))
     implementation("org.openrewrite:rewrite-gradle:$latest")
+    // Versioned by the Jackson platform rewrite-core depends on, so that it matches jackson-databind
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile")
     implementation(gradleApi())
 }
 
@@ -32,3 +36,34 @@ tasks.withType<Test>().configureEach {
 tasks.named<JavaCompile>("compileJava").configure {
     options.release.set(8)
 }
+
+// The plugin and its dependencies, which :model embeds for OpenRewriteModelOptions#embeddedPlugin to put on the
+// classpath of the init script rather than resolving them from remote repositories. The model itself is left out, the
+// jar it is in is used instead. Only external modules are embedded, which also leaves out the Gradle API the daemon provides.
+val embeddedPlugin = tasks.register<Sync>("embeddedPlugin") {
+    from(tasks.named("jar"))
+    from(configurations.runtimeClasspath.map { runtimeClasspath ->
+        runtimeClasspath.incoming.artifactView {
+            componentFilter { it is ModuleComponentIdentifier }
+        }.files
+    })
+    into(layout.buildDirectory.dir("embedded-plugin"))
+    doLast {
+        destinationDir.resolve("classpath.txt").writeText(destinationDir.list()!!
+            .filter { it.endsWith(".jar") }
+            .sorted()
+            .joinToString("\n"))
+    }
+}
+
+val embeddedPluginElements by configurations.creating {
+    isCanBeConsumed = true
+    isCanBeResolved = false
+    attributes {
+        attribute(Usage.USAGE_ATTRIBUTE, objects.named(Usage::class.java, "openrewrite-embedded-plugin"))
+    }
+    outgoing.artifact(embeddedPlugin.map { it.destinationDir }) {
+        type = ArtifactTypeDefinition.DIRECTORY_TYPE
+        builtBy(embeddedPlugin)
+    }
+}
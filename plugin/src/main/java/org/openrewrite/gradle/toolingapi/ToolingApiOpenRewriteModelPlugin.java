@@ -15,21 +15,24 @@
  */
 package org.openrewrite.gradle.toolingapi;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.invocation.DefaultGradle;
+import org.gradle.tooling.provider.model.ParameterizedToolingModelBuilder;
 import org.gradle.tooling.provider.model.ToolingModelBuilder;
 import org.gradle.tooling.provider.model.ToolingModelBuilderRegistry;
 import org.gradle.util.GradleVersion;
-import org.openrewrite.RecipeSerializer;
 import org.openrewrite.gradle.marker.*;
 
 import javax.inject.Inject;
 import java.io.File;
 
+import static java.util.stream.Collectors.toList;
+
 @SuppressWarnings("unused")
 public class ToolingApiOpenRewriteModelPlugin implements Plugin<Project> {
+    private static final String CONFIGURATION_NANOS = "org.openrewrite.gradle.toolingapi.configurationNanos";
+
     private final ToolingModelBuilderRegistry registry;
 
     @Inject
@@ -39,33 +42,110 @@ public ToolingApiOpenRewriteModelPlugin(ToolingModelBuilderRegistry registry) {
 
     @Override
     public void apply(Project project) {
-        registry.register(new OpenRewriteModelBuilder());
+        if (!project.getState().getExecuted()) {
+            long applied = System.nanoTime();
+            project.afterEvaluate(p -> p.getExtensions().getExtraProperties().set(CONFIGURATION_NANOS, System.nanoTime() - applied));
+        }
+        if (GradleVersion.current().compareTo(GradleVersion.version("4.4")) >= 0) {
+            registry.register(new ParameterizedOpenRewriteModelBuilder());
+        } else {
+            registry.register(new OpenRewriteModelBuilder());
+        }
     }
 
-    private static final ObjectMapper mapper = new RecipeSerializer().getMapper();
-
     private static class OpenRewriteModelBuilder implements ToolingModelBuilder {
         @Override
         public boolean canBuild(String modelName) {
-            return modelName.equals(OpenRewriteModelProxy.class.getName());
+            return modelName.equals(OpenRewriteModelProxy.class.getName()) ||
+                   modelName.equals(OpenRewriteModelOutlineProxy.class.getName());
         }
 
         @Override
         public Object buildAll(String modelName, Project project) {
+            OpenRewriteModelFormat format = format(project);
+            boolean outline = modelName.equals(OpenRewriteModelOutlineProxy.class.getName());
+            ExtractionEvents.Event event = ExtractionEvents.begin(ExtractionEvents.Kind.BUILD_MODEL);
             try {
-                org.openrewrite.gradle.marker.GradleProject gradleProject = GradleProjectBuilder.gradleProject(project);
-                byte[] gradleProjectBytes = mapper.writeValueAsBytes(gradleProject);
-
-                byte[] gradleSettingsBytes = null;
+                ExtractionMetrics.ExtractionMetricsBuilder metrics = ExtractionMetrics.builder()
+                        .configurationNanos(configurationNanos(project));
+                long start = System.nanoTime();
+                org.openrewrite.gradle.marker.GradleProject gradleProject = GradleProjectBuilder.gradleProject(project,
+                        outline ? ConfigurationSelection.NONE : ConfigurationSelection.fromProject(project), metrics);
+                GradleSettings gradleSettings = null;
                 if (GradleVersion.current().compareTo(GradleVersion.version("4.4")) >= 0 &&
                     (new File(project.getProjectDir(), "settings.gradle").exists() ||
                      new File(project.getProjectDir(), "settings.gradle.kts").exists())) {
-                    GradleSettings gradleSettings = GradleSettingsBuilder.gradleSettings(((DefaultGradle) project.getGradle()).getSettings());
-                    gradleSettingsBytes = mapper.writeValueAsBytes(gradleSettings);
+                    gradleSettings = GradleSettingsBuilder.gradleSettings(((DefaultGradle) project.getGradle()).getSettings());
                 }
-                return new OpenRewriteModelImpl(gradleProjectBytes, gradleSettingsBytes);
+                long built = System.nanoTime();
+
+                byte[] gradleProjectBytes = format.write(gradleProject);
+                byte[] gradleSettingsBytes = gradleSettings == null ? null : format.write(gradleSettings);
+                ExtractionMetrics extractionMetrics = metrics
+                        .modelBuildNanos(built - start)
+                        .serializationNanos(System.nanoTime() - built)
+                        .payloadBytes(gradleProjectBytes.length + (gradleSettingsBytes == null ? 0 : gradleSettingsBytes.length))
+                        .build();
+                byte[] metricsBytes = format.write(extractionMetrics);
+                event.commit(project.getPath(), null, extractionMetrics.resolvedDependencies());
+                if (outline) {
+                    return new OpenRewriteModelOutlineImpl(format.getId(), gradleProjectBytes, gradleSettingsBytes, metricsBytes,
+                            gradleProject.getConfigurations().stream()
+                                    .map(GradleDependencyConfiguration::getName)
+                                    .collect(toList()));
+                }
+                return new OpenRewriteModelImpl(format.getId(), gradleProjectBytes, gradleSettingsBytes, metricsBytes);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to serialize Gradle model to " + format.getId(), e);
+            }
+        }
+
+        static OpenRewriteModelFormat format(Project project) {
+            return OpenRewriteModelFormat.negotiate(project.findProperty(OpenRewriteModelFormat.REQUESTED_FORMATS_PROPERTY));
+        }
+
+        private static long configurationNanos(Project project) {
+            Object nanos = project.findProperty(CONFIGURATION_NANOS);
+            return nanos instanceof Long ? (Long) nanos : 0;
+        }
+    }
+
+    /**
+     * Additionally builds the model of a single dependency configuration, so that a build action can stream the
+     * configurations of a project to the client one at a time.
+     */
+    private static class ParameterizedOpenRewriteModelBuilder extends OpenRewriteModelBuilder
+            implements ParameterizedToolingModelBuilder<OpenRewriteModelParameters> {
+        @Override
+        public Class<OpenRewriteModelParameters> getParameterType() {
+            return OpenRewriteModelParameters.class;
+        }
+
+        @Override
+        public Object buildAll(String modelName, OpenRewriteModelParameters parameters, Project project) {
+            if (parameters.getConfiguration() == null) {
+                return buildAll(modelName, project);
+            }
+            OpenRewriteModelFormat format = format(project);
+            ExtractionEvents.Event event = ExtractionEvents.begin(ExtractionEvents.Kind.BUILD_MODEL);
+            try {
+                ExtractionMetrics.ExtractionMetricsBuilder metrics = ExtractionMetrics.builder();
+                long start = System.nanoTime();
+                GradleDependencyConfiguration configuration = GradleProjectBuilder.dependencyConfiguration(project,
+                        parameters.getConfiguration(), ConfigurationSelection.fromProject(project), metrics);
+                long built = System.nanoTime();
+                byte[] configurationBytes = format.write(configuration);
+                ExtractionMetrics extractionMetrics = metrics
+                        .modelBuildNanos(built - start)
+                        .serializationNanos(System.nanoTime() - built)
+                        .payloadBytes(configurationBytes.length)
+                        .build();
+                byte[] metricsBytes = format.write(extractionMetrics);
+                event.commit(project.getPath(), parameters.getConfiguration(), extractionMetrics.resolvedDependencies());
+                return new OpenRewriteModelImpl(format.getId(), configurationBytes, null, metricsBytes);
             } catch (Exception e) {
-                throw new RuntimeException("Failed to serialize Gradle model to JSON", e);
+                throw new RuntimeException("Failed to serialize configuration " + parameters.getConfiguration() +
+                                           " to " + format.getId(), e);
             }
         }
     }
@@ -9,6 +9,7 @@ rootProject.name = "rewrite-gradle-tooling-model"
 
 include("model")
 include("plugin")
+include("benchmarks")
 
 plugins {
     id("com.gradle.develocity") version "latest.release"